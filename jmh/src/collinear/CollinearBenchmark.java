@@ -0,0 +1,82 @@
+package collinear;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * collinear engines on the same random points, time and allocation per anchor
+ * usage, from jmh/: java -jar target/benchmarks.jar CollinearBenchmark -prof gc
+ * N distinct points of a GRID x GRID lattice, one op is one anchor (a run over all points counts N)
+ * fast: double slopes, exact: FastCollinearPoints(points, true), hash: HashCollinearPoints,
+ * search: PointSet.Search alone, all anchors on buffers kept from the previous run,
+ * the steady state of the exact engine, whose gc.alloc.rate.norm should be 0
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollinearBenchmark {
+    private static final int N = 2000;
+    private static final int GRID = 200;
+
+    @Param({"fast", "exact", "hash", "search"})
+    private String engine;
+
+    private Point[] points;
+    private PointSet.Search search;
+
+    @Setup
+    public void setUp() {
+        points = randomPoints();
+        search = new PointSet(points).search();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public int run() {
+        switch (engine) {
+            case "fast":
+                return new FastCollinearPoints(points).numberOfSegments();
+            case "exact":
+                return new FastCollinearPoints(points, true).numberOfSegments();
+            case "hash":
+                return new HashCollinearPoints(points).numberOfSegments();
+            default:
+                search.clear();
+                int found = 0;
+                for (int i = 0; i < points.length; i++) {
+                    found += search.anchor(i);
+                }
+                return found;
+        }
+    }
+
+    private static Point[] randomPoints() {
+        SplittableRandom random = new SplittableRandom(20210221L);
+        boolean[] taken = new boolean[GRID * GRID];
+        Point[] points = new Point[N];
+        for (int k = 0; k < N; ) {
+            int cell = random.nextInt(GRID * GRID);
+            if (!taken[cell]) {
+                taken[cell] = true;
+                points[k++] = new Point(cell % GRID, cell / GRID);
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,152 @@
+package queues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * linked Deque vs RingDeque vs IntDeque vs LongDeque, time and allocation per operation
+ * usage, from jmh/: java -jar target/benchmarks.jar DequeBenchmark -prof gc
+ * fillDrain: SIZE addLast then SIZE removeFirst
+ * mixed: SIZE addLast, then SIZE random addFirst / addLast / removeFirst / removeLast
+ * both count 2 * SIZE operations, so ns/op and gc.alloc.rate.norm are per deque operation
+ * generic deques get pre-boxed Integers, so boxing is not part of what is measured
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DequeBenchmark {
+    private static final int SIZE = 1 << 20;
+
+    @Param({"linked", "ring", "int", "long"})
+    private String deque;
+
+    private Integer[] boxed;
+    private int[] ops;
+
+    @Setup
+    public void setUp() {
+        boxed = new Integer[SIZE];
+        ops = new int[SIZE];
+        SplittableRandom random = new SplittableRandom(20210221L);
+        for (int i = 0; i < SIZE; i++) {
+            boxed[i] = i;
+            ops[i] = random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * SIZE)
+    public long fillDrain() {
+        long sum = 0L;
+        if ("linked".equals(deque)) {
+            Deque<Integer> linked = new Deque<>();
+            for (Integer item : boxed) {
+                linked.addLast(item);
+            }
+            while (!linked.isEmpty()) {
+                sum += linked.removeFirst();
+            }
+        }else if ("ring".equals(deque)) {
+            RingDeque<Integer> ring = new RingDeque<>();
+            for (Integer item : boxed) {
+                ring.addLast(item);
+            }
+            while (!ring.isEmpty()) {
+                sum += ring.removeFirst();
+            }
+        }else if ("int".equals(deque)) {
+            IntDeque ints = new IntDeque();
+            for (int i = 0; i < SIZE; i++) {
+                ints.addLast(i);
+            }
+            while (!ints.isEmpty()) {
+                sum += ints.removeFirst();
+            }
+        }else {
+            LongDeque longs = new LongDeque();
+            for (int i = 0; i < SIZE; i++) {
+                longs.addLast(i);
+            }
+            while (!longs.isEmpty()) {
+                sum += longs.removeFirst();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * SIZE)
+    public long mixed() {
+        long sum = 0L;
+        if ("linked".equals(deque)) {
+            Deque<Integer> linked = new Deque<>();
+            for (Integer item : boxed) {
+                linked.addLast(item);
+            }
+            for (int i = 0; i < SIZE; i++) {
+                switch (ops[i]) {
+                    case 0: linked.addFirst(boxed[i]); break;
+                    case 1: linked.addLast(boxed[i]); break;
+                    case 2: sum += linked.removeFirst(); break;
+                    default: sum += linked.removeLast(); break;
+                }
+            }
+        }else if ("ring".equals(deque)) {
+            RingDeque<Integer> ring = new RingDeque<>();
+            for (Integer item : boxed) {
+                ring.addLast(item);
+            }
+            for (int i = 0; i < SIZE; i++) {
+                switch (ops[i]) {
+                    case 0: ring.addFirst(boxed[i]); break;
+                    case 1: ring.addLast(boxed[i]); break;
+                    case 2: sum += ring.removeFirst(); break;
+                    default: sum += ring.removeLast(); break;
+                }
+            }
+        }else if ("int".equals(deque)) {
+            IntDeque ints = new IntDeque();
+            for (int i = 0; i < SIZE; i++) {
+                ints.addLast(i);
+            }
+            for (int i = 0; i < SIZE; i++) {
+                switch (ops[i]) {
+                    case 0: ints.addFirst(i); break;
+                    case 1: ints.addLast(i); break;
+                    case 2: sum += ints.removeFirst(); break;
+                    default: sum += ints.removeLast(); break;
+                }
+            }
+        }else {
+            LongDeque longs = new LongDeque();
+            for (int i = 0; i < SIZE; i++) {
+                longs.addLast(i);
+            }
+            for (int i = 0; i < SIZE; i++) {
+                switch (ops[i]) {
+                    case 0: longs.addFirst(i); break;
+                    case 1: longs.addLast(i); break;
+                    case 2: sum += longs.removeFirst(); break;
+                    default: sum += longs.removeLast(); break;
+                }
+            }
+        }
+        return sum;
+    }
+}
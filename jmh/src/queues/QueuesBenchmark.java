@@ -0,0 +1,220 @@
+package queues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * the reference suite for the queues package: time, latency percentiles and allocation per operation
+ * usage, from jmh/: java -jar target/benchmarks.jar QueuesBenchmark -prof gc
+ * every benchmark is one operation, reported as an average (avgt) and as sampled percentiles (sample),
+ * -prof gc adds gc.alloc.rate.norm (B/op) and the gc count and time
+ *
+ * dequeMix     deque = linked / ring, random addFirst / addLast / removeFirst / removeLast
+ * queueMix     queue = array / chunked, a third each of enqueue / dequeue / sample
+ * iterator     iterator = array / lazy / chunked, create an iterator and take its first item
+ * every queue holds SIZE items at the start of an iteration, the mixes keep it around there
+ * generic queues get pre-boxed Integers, boxing is not part of what is measured
+ * */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueuesBenchmark {
+    private static final int SIZE = 1 << 18;
+
+    @Benchmark
+    public Integer dequeMix(DequeMix state) {
+        return state.op();
+    }
+
+    @Benchmark
+    public Integer queueMix(QueueMix state) {
+        return state.op();
+    }
+
+    @Benchmark
+    public Integer iterator(IteratorCreation state) {
+        return state.op();
+    }
+
+    // SIZE pre-boxed Integers and SIZE random choices, the same for every run
+    private static Integer[] boxed() {
+        Integer[] boxed = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            boxed[i] = i;
+        }
+        return boxed;
+    }
+
+    private static int[] choices() {
+        int[] choices = new int[SIZE];
+        SplittableRandom random = new SplittableRandom(20210221L);
+        for (int i = 0; i < SIZE; i++) {
+            choices[i] = random.nextInt(12);
+        }
+        return choices;
+    }
+
+    @State(Scope.Thread)
+    public static class DequeMix {
+        @Param({"linked", "ring"})
+        private String deque;
+
+        private final Integer[] boxed = boxed();
+        private final int[] choices = choices();
+        private boolean ring;
+        private Deque<Integer> linked;
+        private RingDeque<Integer> array;
+        private int cursor;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ring = "ring".equals(deque);
+            linked = null;
+            array = null;
+            if (ring) {
+                array = new RingDeque<>();
+                for (Integer item : boxed) {
+                    array.addLast(item);
+                }
+            }else {
+                linked = new Deque<>();
+                for (Integer item : boxed) {
+                    linked.addLast(item);
+                }
+            }
+        }
+
+        Integer op() {
+            int i = cursor++ & (SIZE - 1);
+            int choice = choices[i] & 3;
+            if (ring) {
+                if (array.isEmpty()) {
+                    choice = 1;
+                }
+                switch (choice) {
+                    case 0: array.addFirst(boxed[i]); return null;
+                    case 1: array.addLast(boxed[i]); return null;
+                    case 2: return array.removeFirst();
+                    default: return array.removeLast();
+                }
+            }
+            if (linked.isEmpty()) {
+                choice = 1;
+            }
+            switch (choice) {
+                case 0: linked.addFirst(boxed[i]); return null;
+                case 1: linked.addLast(boxed[i]); return null;
+                case 2: return linked.removeFirst();
+                default: return linked.removeLast();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueueMix {
+        @Param({"array", "chunked"})
+        private String queue;
+
+        private final Integer[] boxed = boxed();
+        private final int[] choices = choices();
+        private boolean chunked;
+        private RandomizedQueue<Integer> array;
+        private ChunkedRandomizedQueue<Integer> segmented;
+        private int cursor;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            chunked = "chunked".equals(queue);
+            array = null;
+            segmented = null;
+            if (chunked) {
+                segmented = new ChunkedRandomizedQueue<>();
+                for (Integer item : boxed) {
+                    segmented.enqueue(item);
+                }
+            }else {
+                array = new RandomizedQueue<>();
+                for (Integer item : boxed) {
+                    array.enqueue(item);
+                }
+            }
+        }
+
+        Integer op() {
+            int i = cursor++ & (SIZE - 1);
+            int choice = choices[i] % 3;
+            if (chunked) {
+                if (segmented.isEmpty()) {
+                    choice = 0;
+                }
+                switch (choice) {
+                    case 0: segmented.enqueue(boxed[i]); return null;
+                    case 1: return segmented.dequeue();
+                    default: return segmented.sample();
+                }
+            }
+            if (array.isEmpty()) {
+                choice = 0;
+            }
+            switch (choice) {
+                case 0: array.enqueue(boxed[i]); return null;
+                case 1: return array.dequeue();
+                default: return array.sample();
+            }
+        }
+    }
+
+    // array: RandomizedQueue.iterator(), lazy: RandomizedQueue.lazyIterator(), chunked: ChunkedRandomizedQueue.iterator()
+    @State(Scope.Thread)
+    public static class IteratorCreation {
+        @Param({"array", "lazy", "chunked"})
+        private String iterator;
+
+        private RandomizedQueue<Integer> array;
+        private ChunkedRandomizedQueue<Integer> segmented;
+
+        // the queue is only read, it is built once
+        @Setup
+        public void setUp() {
+            if ("chunked".equals(iterator)) {
+                segmented = new ChunkedRandomizedQueue<>();
+                for (Integer item : boxed()) {
+                    segmented.enqueue(item);
+                }
+            }else {
+                array = new RandomizedQueue<>();
+                for (Integer item : boxed()) {
+                    array.enqueue(item);
+                }
+            }
+        }
+
+        Integer op() {
+            Iterator<Integer> res;
+            if ("array".equals(iterator)) {
+                res = array.iterator();
+            }else if ("lazy".equals(iterator)) {
+                res = array.lazyIterator();
+            }else {
+                res = segmented.iterator();
+            }
+            return res.hasNext() ? res.next() : null;
+        }
+    }
+}
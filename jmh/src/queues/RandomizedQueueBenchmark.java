@@ -0,0 +1,119 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * RandomizedQueue (one array, doubled / halved) vs ChunkedRandomizedQueue, per-operation latency percentiles
+ * usage, from jmh/: java -jar target/benchmarks.jar RandomizedQueueBenchmark
+ * enqueue fills a queue with ITEMS pre-boxed Integers, dequeue empties a full one; one op is one call,
+ * sampled, so the report has p0.9999 and the max next to the average
+ * a full queue is replaced by an empty one (an empty one refilled) in a per-invocation setup,
+ * outside the measurement; the dequeue setup prints the used heap after a gc with the queue full
+ *
+ * averages hide what this compares: the array queue's doublings and halvings are rare but copy everything,
+ * they show up at p99.99 and max, the chunked queue should have no such tail
+ * */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizedQueueBenchmark {
+    private static final int ITEMS = 1 << 22;
+    private static final Integer[] BOXED = new Integer[ITEMS];
+
+    static {
+        for (int i = 0; i < ITEMS; i++) {
+            BOXED[i] = i;
+        }
+    }
+
+    @Benchmark
+    public void enqueue(Filling state) {
+        if (state.chunked) {
+            state.segmented.enqueue(BOXED[state.segmented.size()]);
+        }else {
+            state.array.enqueue(BOXED[state.array.size()]);
+        }
+    }
+
+    @Benchmark
+    public Integer dequeue(Draining state) {
+        return state.chunked ? state.segmented.dequeue() : state.array.dequeue();
+    }
+
+    @State(Scope.Thread)
+    public static class Filling {
+        @Param({"array", "chunked"})
+        private String storage;
+
+        private boolean chunked;
+        private RandomizedQueue<Integer> array;
+        private ChunkedRandomizedQueue<Integer> segmented;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            chunked = "chunked".equals(storage);
+            if (chunked && (segmented == null || segmented.size() == ITEMS)) {
+                segmented = new ChunkedRandomizedQueue<>();
+            }else if (!chunked && (array == null || array.size() == ITEMS)) {
+                array = new RandomizedQueue<>();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Draining {
+        @Param({"array", "chunked"})
+        private String storage;
+
+        private boolean chunked;
+        private RandomizedQueue<Integer> array;
+        private ChunkedRandomizedQueue<Integer> segmented;
+
+        @Setup(Level.Trial)
+        public void printHeap() {
+            chunked = "chunked".equals(storage);
+            fill();
+            System.gc();
+            long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            StdOut.printf("%s queue of %d items: %.1f MB used heap%n", storage, ITEMS, heap / 1e6);
+        }
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            if (chunked ? segmented.isEmpty() : array.isEmpty()) {
+                fill();
+            }
+        }
+
+        private void fill() {
+            if (chunked) {
+                segmented = new ChunkedRandomizedQueue<>();
+                for (Integer item : BOXED) {
+                    segmented.enqueue(item);
+                }
+            }else {
+                array = new RandomizedQueue<>();
+                for (Integer item : BOXED) {
+                    array.enqueue(item);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package uf;
+
+import edu.princeton.cs.algs4.StdOut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * the site-by-site threshold search against bisection with batch opening, one op is one trial
+ * usage, from jmh/: java -jar target/benchmarks.jar PercolationBenchmark [-p n=1000]
+ * every invocation starts from an empty grid and the identity order (reset outside the measurement)
+ * and uses the next seed, linear and bisect see the same sequence of permutations
+ * the trial setup checks that both searches find the same threshold, the trial teardown repeats
+ * one untimed linear trial with PercolationMetrics enabled and prints the counters
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PercolationBenchmark {
+    private static final long SEED = 20210221L;
+
+    @Param({"1000", "2000", "4000", "8000"})
+    private int n;
+
+    private Percolation percolation;
+    private int[] order;
+    private SplittableRandom random;
+    private long trial;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        percolation = new Percolation(n);
+        order = new int[n * n];
+        reset();
+        int expected = PercolationStats.linearSearch(percolation, order, new SplittableRandom(SEED));
+        reset();
+        int actual = PercolationStats.bisectionSearch(percolation, order, new SplittableRandom(SEED));
+        if (expected != actual) {
+            throw new IllegalStateException("n = " + n + ": " + expected + " != " + actual);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextTrial() {
+        reset();
+        random = new SplittableRandom(SEED + trial++);
+    }
+
+    @TearDown(Level.Trial)
+    public void printMetrics() {
+        Percolation counted = new Percolation(n);
+        PercolationMetrics metrics = counted.enableMetrics();
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        PercolationStats.linearSearch(counted, order, new SplittableRandom(SEED));
+        StdOut.println("n = " + n + ": " + metrics);
+    }
+
+    @Benchmark
+    public int linear() {
+        return PercolationStats.linearSearch(percolation, order, random);
+    }
+
+    @Benchmark
+    public int bisect() {
+        return PercolationStats.bisectionSearch(percolation, order, random);
+    }
+
+    private void reset() {
+        percolation.reset();
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+}
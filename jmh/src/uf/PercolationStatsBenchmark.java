@@ -0,0 +1,48 @@
+package uf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * PercolationStats throughput, sequential trials on n-by-n grids
+ * one op is a run of max(1, 2^22 / n^2) trials, about the same number of opened sites for every n
+ * usage, from jmh/: java -jar target/benchmarks.jar PercolationStatsBenchmark -prof gc
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PercolationStatsBenchmark {
+    private static final long SEED = 20210221L;
+
+    @Param({"256", "1024", "2048"})
+    private int n;
+
+    private int trials;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        trials = Math.max(1, (1 << 22) / (n * n));
+    }
+
+    @Benchmark
+    public double sequential() {
+        PercolationStats stats = new PercolationStats(n, trials, SEED + seed++);
+        stats.start();
+        return stats.mean();
+    }
+}
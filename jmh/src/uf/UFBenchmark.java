@@ -0,0 +1,267 @@
+package uf;
+
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/*
+ * micro benchmark of the uf package: open / isFull / percolates cost across grid sizes and fill fractions,
+ * for every union-find backed grid in the package, PercolationStats throughput is in PercolationStatsBenchmark
+ * usage, from jmh/: java -jar target/benchmarks.jar UFBenchmark -prof gc [-p n=256]
+ *
+ * fill:       an empty grid opened to the fill fraction, one op is the whole fill (fill * n^2 opens)
+ *             the grid is built before and released after every op, so allocating it (8 n^2 bytes of
+ *             zeroed direct memory for offheap) is not part of the score
+ * isFull:     one query on a random site of a grid opened to the fill fraction
+ * percolates: one query on the same grid
+ *
+ * grids compared:
+ * flat      Percolation, one packed SiteUF
+ * offheap   OffHeapPercolation, packed longs in direct buffers
+ * lattice   LatticePercolation on Lattice.square
+ * reference the original design, boolean[][] plus two WeightedQuickUnionUF, as a baseline
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UFBenchmark {
+    private static final int QUERIES = 1 << 20;
+    private static final long SEED = 20210221L;
+
+    @Param({"flat", "offheap", "lattice", "reference"})
+    private String grid;
+
+    @Param({"256", "1024", "2048"})
+    private int n;
+
+    @Param({"0.3", "0.5", "0.593", "0.7"})
+    private double fill;
+
+    private IntFunction<Grid> factory;
+    private int[] order;
+    private int opens;
+    private int[] queries;
+    private Grid filled;
+    private Grid empty;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factory = grid(grid);
+        order = permutation(n * n, new SplittableRandom(SEED));
+        opens = (int) (fill * n * n);
+        queries = new int[QUERIES];
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(n * n);
+        }
+        filled = factory.apply(n);
+        fill(filled);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        filled.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void newGrid() {
+        empty = factory.apply(n);
+    }
+
+    // direct memory is only freed once its buffer is collected, closing drops it right away
+    @TearDown(Level.Invocation)
+    public void closeGrid() {
+        empty.close();
+        empty = null;
+    }
+
+    @Benchmark
+    public boolean fill() {
+        fill(empty);
+        return empty.percolates();
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        int site = queries[cursor++ & (QUERIES - 1)];
+        return filled.isFull(site / n + 1, site % n + 1);
+    }
+
+    @Benchmark
+    public boolean percolates() {
+        return filled.percolates();
+    }
+
+    private void fill(Grid grid) {
+        for (int k = 0; k < opens; k++) {
+            int site = order[k];
+            grid.open(site / n + 1, site % n + 1);
+        }
+    }
+
+    // inside-out shuffle from a seeded stream, StdRandom.permutation would use the global generator
+    private static int[] permutation(int length, SplittableRandom random) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            int swap = random.nextInt(i + 1);
+            order[i] = order[swap];
+            order[swap] = i;
+        }
+        return order;
+    }
+
+    private static IntFunction<Grid> grid(String name) {
+        switch (name) {
+            case "flat":
+                return n -> {
+                    Percolation percolation = new Percolation(n);
+                    return new Grid() {
+                        public void open(int row, int col) {
+                            percolation.open(row, col);
+                        }
+
+                        public boolean isFull(int row, int col) {
+                            return percolation.isFull(row, col);
+                        }
+
+                        public boolean percolates() {
+                            return percolation.percolates();
+                        }
+                    };
+                };
+            case "offheap":
+                return n -> {
+                    OffHeapPercolation percolation = new OffHeapPercolation(n);
+                    return new Grid() {
+                        public void open(int row, int col) {
+                            percolation.open(row, col);
+                        }
+
+                        public boolean isFull(int row, int col) {
+                            return percolation.isFull(row, col);
+                        }
+
+                        public boolean percolates() {
+                            return percolation.percolates();
+                        }
+
+                        public void close() {
+                            percolation.close();
+                        }
+                    };
+                };
+            case "lattice":
+                return n -> {
+                    LatticePercolation percolation = new LatticePercolation(Lattice.square(n), false);
+                    return new Grid() {
+                        public void open(int row, int col) {
+                            percolation.openSite((row - 1) * n + col - 1);
+                        }
+
+                        public boolean isFull(int row, int col) {
+                            return percolation.isFull((row - 1) * n + col - 1);
+                        }
+
+                        public boolean percolates() {
+                            return percolation.percolates();
+                        }
+                    };
+                };
+            case "reference":
+                return ReferencePercolation::new;
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    private interface Grid {
+        void open(int row, int col);
+
+        boolean isFull(int row, int col);
+
+        boolean percolates();
+
+        // releases what the grid holds outside the heap, nothing for the heap grids
+        default void close() {
+        }
+    }
+
+    // Percolation before the flat union-find: boolean[][] plus two WeightedQuickUnionUF
+    private static class ReferencePercolation implements Grid {
+        private final int n;
+        private final int top;
+        private final int bottom;
+        private final boolean[][] openOrClose;
+        private final WeightedQuickUnionUF ufModel;
+        private final WeightedQuickUnionUF ufModelWithoutBottom;
+
+        ReferencePercolation(int n) {
+            this.n = n;
+            this.top = 0;
+            this.bottom = n * n + 1;
+            this.openOrClose = new boolean[n + 1][n + 1];
+            this.ufModel = new WeightedQuickUnionUF(bottom + 1);
+            this.ufModelWithoutBottom = new WeightedQuickUnionUF(bottom);
+            for (int i = 1; i <= n; i++) {
+                ufModel.union(top, i);
+                ufModelWithoutBottom.union(top, i);
+            }
+            for (int i = n * n; i > n * (n - 1); i--) {
+                ufModel.union(bottom, i);
+            }
+        }
+
+        public void open(int row, int col) {
+            if (openOrClose[row][col]) {
+                return;
+            }
+            openOrClose[row][col] = true;
+            int cur = (row - 1) * n + col;
+            if (col < n && openOrClose[row][col + 1]) {
+                connect(cur, cur + 1);
+            }
+            if (col > 1 && openOrClose[row][col - 1]) {
+                connect(cur, cur - 1);
+            }
+            if (row < n && openOrClose[row + 1][col]) {
+                connect(cur, cur + n);
+            }
+            if (row > 1 && openOrClose[row - 1][col]) {
+                connect(cur, cur - n);
+            }
+        }
+
+        public boolean isFull(int row, int col) {
+            return openOrClose[row][col]
+                    && ufModelWithoutBottom.find(top) == ufModelWithoutBottom.find((row - 1) * n + col);
+        }
+
+        public boolean percolates() {
+            return ufModel.find(top) == ufModel.find(bottom);
+        }
+
+        private void connect(int p, int q) {
+            ufModel.union(p, q);
+            ufModelWithoutBottom.union(p, q);
+        }
+    }
+}
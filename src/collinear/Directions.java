@@ -0,0 +1,52 @@
+package collinear;
+
+/*
+ * the direction normalisation shared by the exact collinear searches
+ * a direction (dx, dy) between two points is turned into the upper half plane (dy > 0, or dy == 0 and dx > 0),
+ * so both directions along one line become the same one; reduced by the gcd it is a hash key for the line's slope
+ * coordinates are ints, so differences fit in 33 bits and nothing here overflows
+ * */
+final class Directions {
+    private Directions() {
+    }
+
+    // does (dx, dy) point into the lower half plane, i.e. does it have to be turned?
+    static boolean isLower(long dx, long dy) {
+        return dy < 0 || dy == 0 && dx < 0;
+    }
+
+    // (dx, dy) turned into the upper half plane and reduced by the gcd into out[0], out[1], true if it was turned
+    static boolean normalize(long dx, long dy, long[] out) {
+        boolean lower = isLower(dx, dy);
+        if (lower) {
+            dx = -dx;
+            dy = -dy;
+        }
+        long g = gcd(Math.abs(dx), dy);
+        out[0] = dx / g;
+        out[1] = dy / g;
+        return lower;
+    }
+
+    // binary gcd of two non-negative longs, not both zero
+    static long gcd(long a, long b) {
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long tmp = a;
+                a = b;
+                b = tmp;
+            }
+            b -= a;
+        }
+        return a << shift;
+    }
+}
@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class FastCollinearPoints {
     private final Point[] points;
@@ -25,7 +27,21 @@ public class FastCollinearPoints {
 
     // finds all line segments containing 4 or more points
     public FastCollinearPoints(Point[] points) {
-        if (points == null) {
+        this(points, false);
+    }
+
+    // finds all line segments containing 4 or more points, exact compares slopes as integer pairs, no double
+    public FastCollinearPoints(Point[] points, boolean exact) {
+        this(points, exact, 1);
+    }
+
+    // finds all line segments containing 4 or more points with the exact search, anchors split over threads
+    public FastCollinearPoints(Point[] points, int threads) {
+        this(points, true, threads);
+    }
+
+    private FastCollinearPoints(Point[] points, boolean exact, int threads) {
+        if (points == null || threads <= 0) {
             throw new IllegalArgumentException();
         }
         this.points = points.clone();
@@ -33,7 +49,11 @@ public class FastCollinearPoints {
         segments = 0;
         list = new ArrayList<>();
         pairs = new ArrayList<>();
-        fastSearch();
+        if (exact) {
+            exactSearch(threads);
+        }else {
+            fastSearch();
+        }
     }
 
     // the number of line segments
@@ -96,6 +116,52 @@ public class FastCollinearPoints {
         pairs = null;
     }
 
+    // exact mode, runs PointSet.Search over the points, see there
+    private void exactSearch(int threads) {
+        PointSet set = new PointSet(points);
+        if (threads == 1 || points.length < 2) {
+            PointSet.Search search = set.search();
+            for (int i = 0; i < points.length; i++) {
+                search.anchor(i);
+            }
+            collect(points, search, list);
+        }else {
+            parallelSearch(set, threads);
+        }
+        segments = list.size();
+    }
+
+    /*
+    * parallel exact search: what an anchor reports depends on nothing but the points (no shared bst),
+    * so anchors are cut into blocks, a fork-join pool runs the blocks, each worker sorts in its own Search,
+    * and the per-block lists are joined in block order: the same segments in the same order as one thread
+    * blocks are a few times more than threads so that a slow worker does not hold up the join
+    * */
+    private void parallelSearch(PointSet set, int threads) {
+        int blocks = Math.min(points.length, threads * 8);
+        List<List<LineSegment>> found = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            found.add(new ArrayList<>());
+        }
+        ThreadLocal<PointSet.Search> searches = ThreadLocal.withInitial(set::search);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new AnchorBlocks(0, blocks, blocks, points, found, searches));
+        } finally {
+            pool.shutdown();
+        }
+        for (List<LineSegment> block : found) {
+            list.addAll(block);
+        }
+    }
+
+    // point indices of the set are indices of the sorted points array
+    private static void collect(Point[] points, PointSet.Search search, List<LineSegment> out) {
+        for (int k = 0; k < search.count(); k++) {
+            out.add(new LineSegment(points[search.start(k)], points[search.end(k)]));
+        }
+    }
+
     /*
     * insert element into list of pairs,
     * outer search o(logN), insert worst case o(N), inner validate worst case o(N)
@@ -198,6 +264,43 @@ public class FastCollinearPoints {
         }
     }
 
+    // blocks [low, hi) of the blocks anchors are cut into, halved until one block is left
+    private static class AnchorBlocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int low, hi, blocks;
+        // a task is never serialized, its state only lives in the pool
+        private final transient Point[] points;
+        private final transient List<List<LineSegment>> found;
+        private final transient ThreadLocal<PointSet.Search> searches;
+
+        AnchorBlocks(int low, int hi, int blocks, Point[] points, List<List<LineSegment>> found,
+                     ThreadLocal<PointSet.Search> searches) {
+            this.low = low;
+            this.hi = hi;
+            this.blocks = blocks;
+            this.points = points;
+            this.found = found;
+            this.searches = searches;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - low > 1) {
+                int mid = low + (hi - low) / 2;
+                invokeAll(new AnchorBlocks(low, mid, blocks, points, found, searches),
+                        new AnchorBlocks(mid, hi, blocks, points, found, searches));
+                return;
+            }
+            int n = points.length;
+            PointSet.Search search = searches.get();
+            search.clear();
+            for (int i = (int) ((long) n * low / blocks); i < (long) n * (low + 1) / blocks; i++) {
+                search.anchor(i);
+            }
+            collect(points, search, found.get(low));
+        }
+    }
+
     // binary search
     private class MyPair {
         private final double slope;
@@ -267,7 +370,7 @@ public class FastCollinearPoints {
         }
     }
 
-    // unit testing
+    // unit testing, usage: file [exact | threads]
     public static void main(String[] args) {
         // read the n points from a file
         In in = new In(args[0]);
@@ -280,7 +383,14 @@ public class FastCollinearPoints {
         }
 
         // print and draw the line segments
-        FastCollinearPoints collinear = new FastCollinearPoints(points);
+        FastCollinearPoints collinear;
+        if (args.length < 2) {
+            collinear = new FastCollinearPoints(points);
+        }else if ("exact".equals(args[1])) {
+            collinear = new FastCollinearPoints(points, true);
+        }else {
+            collinear = new FastCollinearPoints(points, Integer.parseInt(args[1]));
+        }
         for (LineSegment segment : collinear.segments()) {
             StdOut.println(segment);
         }
@@ -0,0 +1,152 @@
+package collinear;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * same result as FastCollinearPoints, without sorting: O(n^2) expected time, O(n) extra memory, no recursion
+ *
+ * a line's normalised key is (a, b, c) of a x + b y = c, with (a, b) reduced by their gcd and given a fixed sign
+ * for a fixed anchor (x0, y0), c = a x0 + b y0 follows from (a, b), and (a, b) from the direction (dx, dy)
+ * to any other point of the line, so each anchor groups the other n - 1 points by their direction, reduced
+ * by the gcd and turned into the upper half plane, in an open-addressing hash map
+ * of primitive arrays, sized once for the whole search and cleared per anchor through the list of used slots
+ * a group of 3 or more points is a segment, reported only by its smallest point (no point of the group
+ * is smaller than the anchor), so every maximal segment comes out exactly once and no sub-segment does
+ * */
+public class HashCollinearPoints {
+    private final Point[] points;
+    private int segments;
+    private final List<LineSegment> list;
+
+    // open-addressing map, direction (keyX, keyY) -> points in that direction, farthest one, any smaller one
+    private long[] keyX;
+    private long[] keyY;
+    private int[] count;
+    private int[] far;
+    private boolean[] smaller;
+    private int[] used;
+
+    // finds all line segments containing 4 or more points
+    public HashCollinearPoints(Point[] points) {
+        if (points == null) {
+            throw new IllegalArgumentException();
+        }
+        this.points = points.clone();
+        validateAndSort();
+        segments = 0;
+        list = new ArrayList<>();
+        hashSearch();
+    }
+
+    // the number of line segments
+    public int numberOfSegments() {
+        return segments;
+    }
+
+    // the line segments
+    public LineSegment[] segments() {
+        LineSegment[] res = new LineSegment[list.size()];
+        return list.toArray(res);
+    }
+
+    private void validateAndSort() {
+        for (Point p : points) {
+            if (p == null) {
+                throw new IllegalArgumentException();
+            }
+        }
+        Arrays.sort(points);
+        for (int i = 0; i < points.length - 1; i++) {
+            if (points[i].compareTo(points[i + 1]) == 0) {
+                throw new IllegalArgumentException();
+            }
+        }
+    }
+
+    private void hashSearch() {
+        int n = points.length;
+        int capacity = Integer.highestOneBit(Math.max(2, n) * 2 - 1) * 2;
+        keyX = new long[capacity];
+        keyY = new long[capacity];
+        count = new int[capacity];
+        far = new int[capacity];
+        smaller = new boolean[capacity];
+        used = new int[n];
+        int mask = capacity - 1;
+        long[] direction = new long[2];
+        for (int i = 0; i < n; i++) {
+            Point first = points[i];
+            int size = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                boolean before = Directions.normalize((long) points[j].x() - first.x(),
+                        (long) points[j].y() - first.y(), direction);
+                long x = direction[0];
+                long y = direction[1];
+                int slot = hash(x, y) & mask;
+                while (count[slot] != 0 && (keyX[slot] != x || keyY[slot] != y)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (count[slot] == 0) {
+                    keyX[slot] = x;
+                    keyY[slot] = y;
+                    smaller[slot] = false;
+                    used[size++] = slot;
+                }
+                count[slot]++;
+                smaller[slot] |= before;
+                // points are sorted, so among the larger ones on a ray the last j is the farthest
+                if (!before) {
+                    far[slot] = j;
+                }
+            }
+            // used slots in order of first appearance, so the output order is deterministic
+            for (int k = 0; k < size; k++) {
+                int slot = used[k];
+                if (count[slot] >= 3 && !smaller[slot]) {
+                    list.add(new LineSegment(first, points[far[slot]]));
+                    segments++;
+                }
+                count[slot] = 0;
+            }
+        }
+        keyX = null;
+        keyY = null;
+        count = null;
+        far = null;
+        smaller = null;
+        used = null;
+    }
+
+    private static int hash(long x, long y) {
+        long h = x * 0x9e3779b97f4a7c15L + y * 0xc2b2ae3d27d4eb4fL;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            points[i] = new Point(x, y);
+        }
+
+        // print the line segments
+        HashCollinearPoints collinear = new HashCollinearPoints(points);
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+        }
+    }
+}
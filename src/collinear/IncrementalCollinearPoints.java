@@ -0,0 +1,160 @@
+package collinear;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * collinear segments of a growing set of points: add(point) returns only the maximal segments
+ * (4 or more points) that the new point creates or extends
+ *
+ * every line through two or more of the points is kept in a hash map under its normalised key:
+ * the direction (dx, dy) reduced by the gcd and turned into the upper half plane, and c = dy x - dx y,
+ * the same for every point of the line, exact in 128 bits for any int coordinates
+ * an entry holds how many points the line has and its smallest and largest point
+ * adding a point looks up the line through it and each earlier point, O(n) expected time,
+ * instead of a full O(n^2 log n) search; the price is the index, O(n^2) lines in the worst case
+ * */
+public class IncrementalCollinearPoints {
+    private final List<Point> points;
+    private final Set<Long> coordinates;
+    private final Map<Line, Line> lines;
+    // lines with 4 or more points, in the order they first got there
+    private final Set<Line> segmentLines;
+    private int stamp;
+
+    // construct an empty detector
+    public IncrementalCollinearPoints() {
+        points = new ArrayList<>();
+        coordinates = new HashSet<>();
+        lines = new HashMap<>();
+        segmentLines = new LinkedHashSet<>();
+    }
+
+    // add the point, returns the segments it created or extended (an extended one replaces the shorter one)
+    public List<LineSegment> add(Point p) {
+        if (p == null || !coordinates.add((long) p.x() << 32 | (p.y() & 0xffffffffL))) {
+            throw new IllegalArgumentException();
+        }
+        stamp++;
+        List<LineSegment> res = new ArrayList<>();
+        for (Point q : points) {
+            Line key = new Line(p, q);
+            Line line = lines.get(key);
+            if (line == null) {
+                key.count = 2;
+                key.min = p.compareTo(q) < 0 ? p : q;
+                key.max = p.compareTo(q) < 0 ? q : p;
+                key.stamp = stamp;
+                lines.put(key, key);
+                continue;
+            }
+            // p was already added to this line through an earlier point of it
+            if (line.stamp == stamp) {
+                continue;
+            }
+            line.stamp = stamp;
+            line.count++;
+            boolean extended = false;
+            if (p.compareTo(line.min) < 0) {
+                line.min = p;
+                extended = true;
+            }else if (p.compareTo(line.max) > 0) {
+                line.max = p;
+                extended = true;
+            }
+            if (line.count == 4 || line.count > 4 && extended) {
+                segmentLines.add(line);
+                res.add(new LineSegment(line.min, line.max));
+            }
+        }
+        points.add(p);
+        return res;
+    }
+
+    // the number of points added
+    public int size() {
+        return points.size();
+    }
+
+    // the number of maximal line segments
+    public int numberOfSegments() {
+        return segmentLines.size();
+    }
+
+    // the maximal line segments, in the order they first reached 4 points
+    public LineSegment[] segments() {
+        LineSegment[] res = new LineSegment[segmentLines.size()];
+        int i = 0;
+        for (Line line : segmentLines) {
+            res[i++] = new LineSegment(line.min, line.max);
+        }
+        return res;
+    }
+
+    // unit testing: adds the points of the file one by one and prints what every point changes
+    public static void main(String[] args) {
+        // read the n points from a file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        IncrementalCollinearPoints collinear = new IncrementalCollinearPoints();
+        for (int i = 0; i < n; i++) {
+            int x = in.readInt();
+            int y = in.readInt();
+            Point p = new Point(x, y);
+            for (LineSegment segment : collinear.add(p)) {
+                StdOut.println("add " + p + ": " + segment);
+            }
+        }
+        StdOut.println(collinear.numberOfSegments() + " segments");
+    }
+
+    // key (dx, dy, c) plus what is known of the line, equals and hashCode only look at the key
+    private static class Line {
+        private final long dx;
+        private final long dy;
+        private final long cHi;
+        private final long cLo;
+        private int count;
+        private Point min;
+        private Point max;
+        // the add() that last counted a point on this line
+        private int stamp;
+
+        Line(Point p, Point q) {
+            long[] direction = new long[2];
+            Directions.normalize((long) q.x() - p.x(), (long) q.y() - p.y(), direction);
+            dx = direction[0];
+            dy = direction[1];
+            // c = dy * px - dx * py: both products fit in a long, their difference may not
+            long lo1 = dy * p.x();
+            long lo2 = dx * p.y();
+            long hi1 = Math.multiplyHigh(dy, p.x());
+            long hi2 = Math.multiplyHigh(dx, p.y());
+            cLo = lo1 - lo2;
+            cHi = hi1 - hi2 - (Long.compareUnsigned(lo1, lo2) < 0 ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Line)) {
+                return false;
+            }
+            Line that = (Line) o;
+            return dx == that.dx && dy == that.dy && cHi == that.cHi && cLo == that.cLo;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = dx * 0x9e3779b97f4a7c15L + dy * 0xc2b2ae3d27d4eb4fL + cLo * 0x165667b19e3779f9L + cHi;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
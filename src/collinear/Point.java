@@ -76,12 +76,9 @@ public class Point implements Comparable<Point> {
      */
     public int compareTo(Point that) {
         /* YOUR CODE HERE */
-        int diff = this.y - that.y;
-        if (diff == 0) {
-            diff = this.x - that.x;
-            return Integer.compare(diff, 0);
-        }
-        return diff < 0 ? -1 : 1;
+        // compare, not subtract: the difference of two ints may overflow
+        int diff = Integer.compare(this.y, that.y);
+        return diff != 0 ? diff : Integer.compare(this.x, that.x);
     }
 
     /**
@@ -108,6 +105,15 @@ public class Point implements Comparable<Point> {
         return "(" + x + ", " + y + ")";
     }
 
+    // x-coordinate, for the exact searches of this package
+    int x() {
+        return x;
+    }
+
+    // y-coordinate, for the exact searches of this package
+    int y() {
+        return y;
+    }
 
     private class PointComparator implements Comparator<Point> {
         @Override
@@ -0,0 +1,250 @@
+package collinear;
+
+import java.util.Arrays;
+
+/*
+ * struct-of-arrays point set: the coordinates sit in two int arrays, sorted as Point.compareTo sorts
+ * (by y, then x), so index i here is index i of a sorted Point[] of the same points
+ * the exact collinear search walks xs / ys instead of chasing one Point object per comparison
+ * */
+public class PointSet {
+    private final int[] xs;
+    private final int[] ys;
+
+    // the set of the given points, no null and no duplicate allowed
+    public PointSet(Point[] points) {
+        if (points == null) {
+            throw new IllegalArgumentException();
+        }
+        int n = points.length;
+        xs = new int[n];
+        ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (points[i] == null) {
+                throw new IllegalArgumentException();
+            }
+            xs[i] = points[i].x();
+            ys[i] = points[i].y();
+        }
+        sort();
+    }
+
+    // the set of the points (xs[i], ys[i]), no duplicate allowed
+    public PointSet(int[] xs, int[] ys) {
+        if (xs == null || ys == null || xs.length != ys.length) {
+            throw new IllegalArgumentException();
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        sort();
+    }
+
+    // number of points
+    public int size() {
+        return xs.length;
+    }
+
+    // x-coordinate of the i-th smallest point
+    public int x(int i) {
+        return xs[i];
+    }
+
+    // y-coordinate of the i-th smallest point
+    public int y(int i) {
+        return ys[i];
+    }
+
+    // the i-th smallest point, a new Point
+    public Point point(int i) {
+        return new Point(xs[i], ys[i]);
+    }
+
+    // a search over this set with its own buffers
+    Search search() {
+        return new Search();
+    }
+
+    // sorted by (y, x) as one long key per point, y in the high half, x offset to unsigned in the low half
+    private void sort() {
+        int n = xs.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (long) ys[i] << 32 | (xs[i] - (long) Integer.MIN_VALUE);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                throw new IllegalArgumentException();
+            }
+            ys[i] = (int) (keys[i] >> 32);
+            xs[i] = (int) ((keys[i] & 0xffffffffL) + Integer.MIN_VALUE);
+        }
+    }
+
+    /*
+    * the exact search, one anchor at a time
+    * the slope from the anchor to a point is the pair (dx, dy) turned into the upper half plane
+    * (dy > 0, or dy == 0 and dx > 0), so points on one line through the anchor get parallel pairs
+    * two pairs are compared by the sign of the cross product: in a plain long when every difference of this
+    * anchor fits in 31 bits, the products then stay below 2^62, otherwise in 128 bits with multiplyHigh
+    *
+    * all other points are sorted, not only the later ones, a run of 3 or more equal slopes is reported
+    * only when none of its points is smaller than the anchor (the pair had to be turned), i.e. by the smallest point,
+    * so no sub-segment is ever produced and no dedup structure is needed
+    * within a run points are ordered by distance from the anchor, the last one is the far endpoint
+    *
+    * keys are computed once per anchor into dx / dy, the merge sort moves int indices through one scratch buffer,
+    * all of it sized at construction: after the first anchor only the growth of ends allocates
+    * */
+    final class Search {
+        private static final int CUTOFF = 12;
+        private static final long SMALL = Integer.MAX_VALUE;
+
+        private final long[] dx;
+        private final long[] dy;
+        private final boolean[] before;
+        private final int[] order;
+        private final int[] aux;
+        private boolean small;
+        // (smallest point, far endpoint) of every segment found since the last clear()
+        private int[] ends;
+        private int count;
+
+        private Search() {
+            int n = xs.length;
+            dx = new long[n];
+            dy = new long[n];
+            before = new boolean[n];
+            order = new int[Math.max(0, n - 1)];
+            aux = new int[order.length];
+            ends = new int[16];
+        }
+
+        // finds the segments whose smallest point is point i, in slope order, returns how many
+        int anchor(int i) {
+            int n = xs.length;
+            long x0 = xs[i];
+            long y0 = ys[i];
+            long max = 0L;
+            int m = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                long x = xs[j] - x0;
+                long y = ys[j] - y0;
+                before[j] = Directions.isLower(x, y);
+                dx[j] = before[j] ? -x : x;
+                dy[j] = before[j] ? -y : y;
+                max = Math.max(max, Math.max(Math.abs(x), Math.abs(y)));
+                order[m++] = j;
+            }
+            small = max <= SMALL;
+            mergeSort(0, m - 1);
+            int found = 0;
+            int start = 0;
+            while (start < m) {
+                int end = start + 1;
+                boolean reported = !before[order[start]];
+                while (end < m && cross(order[start], order[end]) == 0) {
+                    reported &= !before[order[end]];
+                    end++;
+                }
+                if (end - start >= 3 && reported) {
+                    add(i, order[end - 1]);
+                    found++;
+                }
+                start = end;
+            }
+            return found;
+        }
+
+        // segments found since the last clear()
+        int count() {
+            return count;
+        }
+
+        // smallest point of the k-th segment
+        int start(int k) {
+            return ends[2 * k];
+        }
+
+        // far endpoint of the k-th segment
+        int end(int k) {
+            return ends[2 * k + 1];
+        }
+
+        // forgets the segments found so far, keeps the buffers
+        void clear() {
+            count = 0;
+        }
+
+        private void add(int start, int end) {
+            if (2 * count + 2 > ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+            }
+            ends[2 * count] = start;
+            ends[2 * count + 1] = end;
+            count++;
+        }
+
+        // sign of dx[a] * dy[b] - dy[a] * dx[b]
+        private int cross(int a, int b) {
+            if (small) {
+                return Long.compare(dx[a] * dy[b], dy[a] * dx[b]);
+            }
+            long hi1 = Math.multiplyHigh(dx[a], dy[b]);
+            long hi2 = Math.multiplyHigh(dy[a], dx[b]);
+            if (hi1 != hi2) {
+                return Long.compare(hi1, hi2);
+            }
+            return Long.compareUnsigned(dx[a] * dy[b], dy[a] * dx[b]);
+        }
+
+        // by angle in the upper half plane, then by distance from the anchor
+        private int compare(int a, int b) {
+            int diff = cross(b, a);
+            if (diff != 0) {
+                return diff;
+            }
+            diff = Long.compare(dy[a], dy[b]);
+            return diff != 0 ? diff : Long.compare(dx[a], dx[b]);
+        }
+
+        // merge sort of order[low, hi], insertion sort below CUTOFF, merges go through aux
+        private void mergeSort(int low, int hi) {
+            if (hi - low < CUTOFF) {
+                for (int i = low + 1; i <= hi; i++) {
+                    int cur = order[i];
+                    int j = i;
+                    for (; j > low && compare(order[j - 1], cur) > 0; j--) {
+                        order[j] = order[j - 1];
+                    }
+                    order[j] = cur;
+                }
+                return;
+            }
+            int mid = low + (hi - low) / 2;
+            mergeSort(low, mid);
+            mergeSort(mid + 1, hi);
+            if (compare(order[mid], order[mid + 1]) <= 0) {
+                return;
+            }
+            int index = low, i = low, j = mid + 1;
+            while (i <= mid && j <= hi) {
+                if (compare(order[i], order[j]) <= 0) {
+                    aux[index++] = order[i++];
+                }else {
+                    aux[index++] = order[j++];
+                }
+            }
+            while (i <= mid) {
+                aux[index++] = order[i++];
+            }
+            while (j <= hi) {
+                aux[index++] = order[j++];
+            }
+            System.arraycopy(aux, low, order, low, hi - low + 1);
+        }
+    }
+}
@@ -4,13 +4,26 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
 public class RandomWord {
+    // usage: no argument reads standard input; file [k] [threads] [lines] samples k words (or lines) of a file
     public static void main(String[] args) {
+        if (args.length > 0) {
+            int k = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            boolean lines = args.length > 3 && "lines".equals(args[3]);
+            for (String s : ReservoirSampler.sample(Paths.get(args[0]), k, lines, threads, StdRandom.getSeed())) {
+                StdOut.println(s);
+            }
+            return;
+        }
         String res = "";
-        double i = 0D;
+        ReservoirSampler sampler = new ReservoirSampler(1, new SplittableRandom(StdRandom.getSeed()));
         while (!StdIn.isEmpty()) {
             String next = StdIn.readString();
-            if (StdRandom.bernoulli(1 / ++i)) {
+            if (sampler.next() == 0) {
                 res = next;
             }
         }
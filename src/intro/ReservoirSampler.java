@@ -0,0 +1,264 @@
+package intro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * uniform sample of k items from a stream of unknown length, algorithm L:
+ * once the reservoir is full the number of items to skip before the next replacement is drawn
+ * from a geometric distribution, so a skipped item costs a counter decrement and no random draw
+ *
+ * the sampler only hands out reservoir slots, the caller keeps the items (strings, offsets, ints ...)
+ * in its own array of size k, so nothing is boxed
+ *
+ * sample(file, ...) picks k tokens or lines of a file: the file is split into one byte range per thread,
+ * every range is scanned through memory-mapped windows into its own reservoir of token start offsets,
+ * the per-range reservoirs are merged with weights given by how many items each range saw,
+ * and only the k winners are ever decoded into strings
+ * */
+public class ReservoirSampler {
+    private static final int WINDOW = 1 << 26;
+    // smaller ranges are not worth a thread
+    private static final long MIN_RANGE = 1 << 20;
+
+    private final int k;
+    private final SplittableRandom random;
+    private long count;
+    private long skip;
+    private double w;
+
+    // sampler of k items drawing from random
+    public ReservoirSampler(int k, SplittableRandom random) {
+        if (k < 0 || random == null) {
+            throw new IllegalArgumentException();
+        }
+        this.k = k;
+        this.random = random;
+    }
+
+    // count one more item, returns the reservoir slot it must be stored in, or -1 if it is not kept
+    public int next() {
+        long i = count++;
+        if (i < k) {
+            if (i == k - 1) {
+                w = Math.exp(Math.log(uniform()) / k);
+                skip = nextSkip();
+            }
+            return (int) i;
+        }
+        if (k == 0) {
+            return -1;
+        }
+        if (skip > 0) {
+            skip--;
+            return -1;
+        }
+        w *= Math.exp(Math.log(uniform()) / k);
+        skip = nextSkip();
+        return random.nextInt(k);
+    }
+
+    // number of items seen so far
+    public long count() {
+        return count;
+    }
+
+    // number of filled reservoir slots, min(k, count)
+    public int size() {
+        return (int) Math.min(k, count);
+    }
+
+    /*
+    * k uniform random whitespace-separated tokens (or lines, without their line terminator) of a utf-8 file,
+    * in random order, fewer if the file has fewer; the file is scanned by threads threads
+    * */
+    public static List<String> sample(Path file, int k, boolean lines, int threads, long seed) {
+        if (k < 0 || threads <= 0) {
+            throw new IllegalArgumentException();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            SplittableRandom root = new SplittableRandom(seed);
+            int ranges = (int) Math.max(1, Math.min(threads, size / MIN_RANGE));
+            Range[] scanned = new Range[ranges];
+            if (ranges == 1) {
+                scanned[0] = scan(channel, 0L, size, lines, k, root.split());
+            }else {
+                List<Callable<Range>> tasks = new ArrayList<>();
+                for (int i = 0; i < ranges; i++) {
+                    long from = size * i / ranges;
+                    long to = size * (i + 1) / ranges;
+                    SplittableRandom random = root.split();
+                    tasks.add(() -> scan(channel, from, to, lines, k, random));
+                }
+                ExecutorService executor = Executors.newFixedThreadPool(ranges);
+                try {
+                    List<Future<Range>> futures = executor.invokeAll(tasks);
+                    for (int i = 0; i < ranges; i++) {
+                        scanned[i] = futures.get(i).get();
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+            }
+            long[] winners = merge(scanned, k, root);
+            List<String> res = new ArrayList<>(winners.length);
+            for (long start : winners) {
+                res.add(decode(channel, start, lines));
+            }
+            return res;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // uniform in (0, 1], so its log is finite
+    private double uniform() {
+        return 1 - random.nextDouble();
+    }
+
+    private long nextSkip() {
+        return (long) Math.floor(Math.log(uniform()) / Math.log(1 - w));
+    }
+
+    // reservoir of the items starting in [from, to), an item belongs to the range its first byte is in
+    private static Range scan(FileChannel channel, long from, long to, boolean lines, int k,
+                              SplittableRandom random) throws IOException {
+        ReservoirSampler sampler = new ReservoirSampler(k, random);
+        long[] starts = new long[k];
+        byte prev = '\n';
+        if (from > 0) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, from - 1);
+            prev = one.get(0);
+        }
+        for (long base = from; base < to; base += WINDOW) {
+            int length = (int) Math.min(WINDOW, to - base);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+            for (int i = 0; i < length; i++) {
+                byte b = window.get(i);
+                boolean start = lines ? prev == '\n' : isWhitespace(prev) && !isWhitespace(b);
+                if (start) {
+                    int slot = sampler.next();
+                    if (slot >= 0) {
+                        starts[slot] = base + i;
+                    }
+                }
+                prev = b;
+            }
+        }
+        return new Range(sampler.count(), Arrays.copyOf(starts, sampler.size()));
+    }
+
+    /*
+    * k draws without replacement from the union of the ranges:
+    * a draw picks range i with probability (items of i not drawn yet) / (items not drawn yet),
+    * then a reservoir entry of i not drawn yet, uniformly
+    * so the number of draws per range is multivariate hypergeometric, as for a sample of the whole file,
+    * and given that number the entries are a uniform subset of a uniform subset of the range
+    * */
+    private static long[] merge(Range[] ranges, int k, SplittableRandom random) {
+        long remaining = 0L;
+        for (Range range : ranges) {
+            remaining += range.count;
+        }
+        int m = (int) Math.min(k, remaining);
+        long[] left = new long[ranges.length];
+        int[] drawn = new int[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            left[i] = ranges[i].count;
+        }
+        long[] res = new long[m];
+        for (int j = 0; j < m; j++) {
+            long r = random.nextLong(remaining);
+            int i = 0;
+            while (r >= left[i]) {
+                r -= left[i++];
+            }
+            long[] starts = ranges[i].starts;
+            int pick = drawn[i] + random.nextInt(starts.length - drawn[i]);
+            long tmp = starts[pick];
+            starts[pick] = starts[drawn[i]];
+            starts[drawn[i]++] = tmp;
+            res[j] = tmp;
+            left[i]--;
+            remaining--;
+        }
+        return res;
+    }
+
+    private static String decode(FileChannel channel, long start, boolean lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        byte[] bytes = new byte[64];
+        int length = 0;
+        long position = start;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            int i = 0;
+            for (; i < read; i++) {
+                byte b = buffer.get(i);
+                if (lines ? b == '\n' : isWhitespace(b)) {
+                    break;
+                }
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, length * 2);
+                }
+                bytes[length++] = b;
+            }
+            if (i < read) {
+                break;
+            }
+        }
+        if (lines && length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f' || b == 0x0b;
+    }
+
+    // what one byte range contributes to the merge: how many items it saw and its reservoir
+    private static class Range {
+        private final long count;
+        private final long[] starts;
+
+        Range(long count, long[] starts) {
+            this.count = count;
+            this.starts = starts;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * thread-safe deque with a fixed capacity: producers block (or time out) while it is full,
+ * consumers block while it is empty, so a slow consumer holds back its producers instead of filling the heap
+ *
+ * items sit in a preallocated circular array as in RingDeque, no allocation per item
+ * one lock guards both ends: the two-lock scheme of a linked queue relies on each end being touched
+ * by one side only, a deque's front and back are both reached by offers and takes
+ * contention is cut instead by doing little under the lock (an array store and an index update, a signal
+ * that is one field read when nobody waits) and by drainTo moving a whole batch per lock
+ *
+ * waiting is ReentrantLock / Condition, which park through LockSupport: a virtual thread that blocks here
+ * unmounts from its carrier, where a monitor wait would pin it
+ * with spin set, takes and offers first spin for a short while on the volatile count before locking and parking,
+ * worth it for platform threads on a machine with idle cores, not for virtual threads
+ * */
+public class BoundedBlockingDeque<Item> implements Iterable<Item> {
+    private static final int SPINS = 256;
+
+    private final Item[] items;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final boolean spin;
+    private int head;
+    // written under the lock, volatile so size() and the spin loops can read it without it
+    private volatile int n;
+
+    // construct an empty deque holding at most capacity items
+    public BoundedBlockingDeque(int capacity) {
+        this(capacity, false);
+    }
+
+    // construct an empty deque holding at most capacity items, spin before parking if spin is set
+    public BoundedBlockingDeque(int capacity, boolean spin) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        items = (Item[]) new Object[capacity];
+        this.spin = spin;
+    }
+
+    // is the deque empty? a snapshot
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // return the number of items on the deque, a snapshot
+    public int size() {
+        return n;
+    }
+
+    // return how many more items fit, a snapshot
+    public int remainingCapacity() {
+        return items.length - n;
+    }
+
+    // add the item to the front if there is room, false if the deque is full
+    public boolean offerFirst(Item item) {
+        validateItem(item);
+        lock.lock();
+        try {
+            if (n == items.length) {
+                return false;
+            }
+            linkFirst(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back if there is room, false if the deque is full
+    public boolean offerLast(Item item) {
+        validateItem(item);
+        lock.lock();
+        try {
+            if (n == items.length) {
+                return false;
+            }
+            linkLast(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front, waiting up to timeout for room, false if it timed out
+    public boolean offerFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(item, true, unit.toNanos(timeout));
+    }
+
+    // add the item to the back, waiting up to timeout for room, false if it timed out
+    public boolean offerLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(item, false, unit.toNanos(timeout));
+    }
+
+    // add the item to the front, waiting as long as it takes for room
+    public void putFirst(Item item) throws InterruptedException {
+        offer(item, true, Long.MAX_VALUE);
+    }
+
+    // add the item to the back, waiting as long as it takes for room
+    public void putLast(Item item) throws InterruptedException {
+        offer(item, false, Long.MAX_VALUE);
+    }
+
+    // remove and return the item from the front, null if the deque is empty
+    public Item pollFirst() {
+        lock.lock();
+        try {
+            return n == 0 ? null : unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, null if the deque is empty
+    public Item pollLast() {
+        lock.lock();
+        try {
+            return n == 0 ? null : unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, waiting up to timeout for one, null if it timed out
+    public Item pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(true, unit.toNanos(timeout));
+    }
+
+    // remove and return the item from the back, waiting up to timeout for one, null if it timed out
+    public Item pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(false, unit.toNanos(timeout));
+    }
+
+    // remove and return the item from the front, waiting as long as it takes for one
+    public Item takeFirst() throws InterruptedException {
+        return poll(true, Long.MAX_VALUE);
+    }
+
+    // remove and return the item from the back, waiting as long as it takes for one
+    public Item takeLast() throws InterruptedException {
+        return poll(false, Long.MAX_VALUE);
+    }
+
+    /*
+    * move up to max items from the front into target, front to back, under one lock; returns how many were moved
+    * each item is unlinked before it is handed to target, so the deque is consistent whatever target.add does,
+    * including offering back into this deque (the lock is reentrant); if target.add throws,
+    * the item goes back to the front and the exception is rethrown
+    * the unlink freed a slot and nothing else can run under the lock, so there is always room for it,
+    * unless target itself re-entered and filled the deque: then the item is dropped
+    * and named in an exception suppressed by the rethrown one
+    * */
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null || max < 0) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            int moved = 0;
+            while (moved < max && n > 0) {
+                Item item = unlinkFirst();
+                try {
+                    target.add(item);
+                } catch (RuntimeException | Error e) {
+                    if (n < items.length) {
+                        linkFirst(item);
+                    }else {
+                        e.addSuppressed(new IllegalStateException("deque refilled by target, dropped " + item));
+                    }
+                    throw e;
+                }
+                moved++;
+            }
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // iterator front to back over a snapshot taken when it is created
+    public Iterator<Item> iterator() {
+        List<Item> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(n);
+            for (int i = 0, p = head; i < n; i++, p = next(p)) {
+                snapshot.add(items[p]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Iterator<Item> iterator = snapshot.iterator();
+        return new Iterator<Item>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Item next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    /*
+    * throughput vs number of producers
+    * usage: [max producers] [items] [capacity], producers are 1, 2, 4 .. max producers, items are split among them
+    * one consumer takes items one by one (take) or in batches (drainTo); LinkedBlockingDeque of the same capacity,
+    * the jdk's one-lock linked deque, runs the take workload as the reference
+    * every item is checked to arrive exactly once
+    * */
+    public static void main(String[] args) throws InterruptedException {
+        int maxProducers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 21;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        Integer[] boxed = new Integer[items];
+        for (int i = 0; i < items; i++) {
+            boxed[i] = i;
+        }
+        StdOut.printf("%-10s %12s %12s %12s%n", "producers", "take", "drainTo", "jdk(take)");
+        for (int round = 0; round < 2; round++) {
+            for (int producers = 1; producers <= maxProducers; producers *= 2) {
+                double take = run(new BoundedBlockingDeque<>(capacity), null, producers, boxed, false);
+                double drain = run(new BoundedBlockingDeque<>(capacity), null, producers, boxed, true);
+                double jdk = run(null, new LinkedBlockingDeque<>(capacity), producers, boxed, false);
+                // the first round warms up
+                if (round > 0) {
+                    StdOut.printf("%-10d %8.2f M/s %8.2f M/s %8.2f M/s%n", producers,
+                            items / take / 1e6, items / drain / 1e6, items / jdk / 1e6);
+                }
+            }
+        }
+    }
+
+    private boolean offer(Item item, boolean first, long nanos) throws InterruptedException {
+        validateItem(item);
+        if (spin) {
+            for (int i = 0; i < SPINS && n == items.length; i++) {
+                Thread.onSpinWait();
+            }
+        }
+        lock.lockInterruptibly();
+        try {
+            while (n == items.length) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = nanos == Long.MAX_VALUE ? awaitForever(notFull) : notFull.awaitNanos(nanos);
+            }
+            if (first) {
+                linkFirst(item);
+            }else {
+                linkLast(item);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Item poll(boolean first, long nanos) throws InterruptedException {
+        if (spin) {
+            for (int i = 0; i < SPINS && n == 0; i++) {
+                Thread.onSpinWait();
+            }
+        }
+        lock.lockInterruptibly();
+        try {
+            while (n == 0) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = nanos == Long.MAX_VALUE ? awaitForever(notEmpty) : notEmpty.awaitNanos(nanos);
+            }
+            return first ? unlinkFirst() : unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long awaitForever(Condition condition) throws InterruptedException {
+        condition.await();
+        return Long.MAX_VALUE;
+    }
+
+    // the four below run under the lock
+    private void linkFirst(Item item) {
+        head = prev(head);
+        items[head] = item;
+        n = n + 1;
+        notEmpty.signal();
+    }
+
+    private void linkLast(Item item) {
+        int tail = head + n < items.length ? head + n : head + n - items.length;
+        items[tail] = item;
+        n = n + 1;
+        notEmpty.signal();
+    }
+
+    private Item unlinkFirst() {
+        Item res = items[head];
+        items[head] = null;
+        head = next(head);
+        n = n - 1;
+        notFull.signal();
+        return res;
+    }
+
+    private Item unlinkLast() {
+        int tail = head + n - 1 < items.length ? head + n - 1 : head + n - 1 - items.length;
+        Item res = items[tail];
+        items[tail] = null;
+        n = n - 1;
+        notFull.signal();
+        return res;
+    }
+
+    private int next(int i) {
+        return i + 1 == items.length ? 0 : i + 1;
+    }
+
+    private int prev(int i) {
+        return i == 0 ? items.length - 1 : i - 1;
+    }
+
+    private void validateItem(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // returns elapsed seconds, exactly one of deque and jdk is set
+    private static double run(BoundedBlockingDeque<Integer> deque, LinkedBlockingDeque<Integer> jdk,
+                              int producers, Integer[] boxed, boolean batch) throws InterruptedException {
+        int items = boxed.length;
+        boolean[] seen = new boolean[items];
+        CountDownLatch done = new CountDownLatch(producers);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int from = (int) ((long) items * p / producers);
+            int to = (int) ((long) items * (p + 1) / producers);
+            threads[p] = new Thread(() -> {
+                try {
+                    for (int i = from; i < to; i++) {
+                        if (deque != null) {
+                            deque.putLast(boxed[i]);
+                        }else {
+                            jdk.putLast(boxed[i]);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        List<Integer> buffer = new ArrayList<>();
+        int received = 0;
+        while (received < items) {
+            if (batch) {
+                if (deque.drainTo(buffer, Integer.MAX_VALUE) == 0) {
+                    buffer.add(deque.takeFirst());
+                }
+                for (Integer item : buffer) {
+                    check(seen, item);
+                }
+                received += buffer.size();
+                buffer.clear();
+            }else {
+                check(seen, deque != null ? deque.takeFirst() : jdk.takeFirst());
+                received++;
+            }
+        }
+        done.await();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void check(boolean[] seen, int item) {
+        if (seen[item]) {
+            throw new IllegalStateException("item " + item + " received twice");
+        }
+        seen[item] = true;
+    }
+}
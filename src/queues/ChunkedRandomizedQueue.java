@@ -0,0 +1,163 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * RandomizedQueue over a segmented array: fixed-size chunks of CHUNK_SIZE slots behind a small directory
+ * index i lives in chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK], so items never move when the queue grows or shrinks
+ *
+ * enqueue allocates at most one chunk, dequeue releases at most one chunk: no call ever copies items,
+ * the only copy left is the directory doubling, n / CHUNK_SIZE references (a few thousand at 10^7 items)
+ * memory is n slots rounded up to a chunk, plus one spare chunk kept so that a queue going back and forth
+ * across a chunk boundary does not allocate and free the same chunk on every call;
+ * RandomizedQueue keeps its array between a quarter and half full, 2x to 4x n slots
+ * */
+public class ChunkedRandomizedQueue<Item> implements Iterable<Item> {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Object[][] chunks;
+    // chunks[0, allocated) are allocated, the rest of the directory is null
+    private int allocated;
+    private int n;
+
+    // construct an empty randomized queue
+    public ChunkedRandomizedQueue() {
+        chunks = new Object[16][];
+        allocated = 0;
+        n = 0;
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // return the number of items on the randomized queue
+    public int size() {
+        return n;
+    }
+
+    // add the item
+    public void enqueue(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+        int chunk = n >>> CHUNK_SHIFT;
+        if (chunk == allocated) {
+            if (allocated == chunks.length) {
+                Object[][] updated = new Object[chunks.length * 2][];
+                System.arraycopy(chunks, 0, updated, 0, allocated);
+                chunks = updated;
+            }
+            chunks[allocated++] = new Object[CHUNK_SIZE];
+        }
+        chunks[chunk][n & CHUNK_MASK] = item;
+        n++;
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        checkEmpty();
+        int index = StdRandom.uniform(n);
+        int last = n - 1;
+        Object[] lastChunk = chunks[last >>> CHUNK_SHIFT];
+        Object[] chunk = chunks[index >>> CHUNK_SHIFT];
+        Item remove = (Item) chunk[index & CHUNK_MASK];
+        chunk[index & CHUNK_MASK] = lastChunk[last & CHUNK_MASK];
+        lastChunk[last & CHUNK_MASK] = null;
+        n = last;
+        // keep the chunks in use plus one spare
+        int used = (n + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (allocated > used + 1) {
+            chunks[--allocated] = null;
+        }
+        return remove;
+    }
+
+    // return a random item (but do not remove it)
+    public Item sample() {
+        checkEmpty();
+        int index = StdRandom.uniform(n);
+        return (Item) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    // return an independent iterator over items in random order
+    public Iterator<Item> iterator() {
+        return new RandomizedIterator();
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        ChunkedRandomizedQueue<Integer> queue = new ChunkedRandomizedQueue<>();
+        StdOut.println("initial randomized queue size: " + queue.size());
+        StdOut.println("is randomized queue empty: " + queue.isEmpty());
+        int items = 3 * CHUNK_SIZE + 5;
+        for (int i = 0; i < items; i++) {
+            queue.enqueue(i);
+        }
+        StdOut.println("current randomized queue size: " + queue.size() + ", chunks: " + queue.allocated);
+        boolean[] seen = new boolean[items];
+        for (int i : queue) {
+            seen[i] = true;
+        }
+        for (int i = 0; i < items; i++) {
+            if (!seen[i]) {
+                throw new IllegalStateException("item " + i + " missing from the iterator");
+            }
+        }
+        StdOut.println("sample :" + queue.sample());
+        while (queue.size() > 5) {
+            int item = queue.dequeue();
+            if (!seen[item]) {
+                throw new IllegalStateException("item " + item + " dequeued twice");
+            }
+            seen[item] = false;
+        }
+        StdOut.println("after dequeues, size: " + queue.size() + ", chunks: " + queue.allocated);
+        StdOut.println("output(random order): ");
+        for (int i : queue) {
+            StdOut.print(i + "\t");
+        }
+        StdOut.println();
+    }
+
+    private void checkEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    private class RandomizedIterator implements Iterator<Item> {
+        private final int[] shuffledIndex;
+        private int p;
+
+        public RandomizedIterator() {
+            p = 0;
+            shuffledIndex = new int[n];
+            for (int i = 0; i < n; i++) {
+                shuffledIndex[i] = i;
+            }
+            StdRandom.shuffle(shuffledIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return p < shuffledIndex.length;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = shuffledIndex[p++];
+            return (Item) chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/*
+ * thread-safe randomized queue, items striped over one shard per core, each shard with its own lock
+ * every thread owns a SplittableRandom split from the queue's root stream and a home shard:
+ * enqueue only locks the home shard, so threads with distinct home shards never contend,
+ * dequeue / sample lock just the one shard they pick
+ *
+ * uniformity:
+ * a removal reads every shard size (s_1..s_k, total s), picks shard i with probability s_i / s,
+ * then an item of that shard uniformly, so each item is chosen with probability (s_i / s) * (1 / s_i) = 1 / s
+ * this is exact when no other thread changes the queue during the call (in particular single-threaded use);
+ * under concurrent changes the sizes read may be stale by the operations that overlap the call,
+ * the call is then uniform over the shard it locked but the shard weights are those of the snapshot
+ * if the picked shard was emptied in between, the call starts over with fresh sizes
+ * */
+public class ConcurrentRandomizedQueue<Item> implements Iterable<Item> {
+    private final Shard<Item>[] shards;
+    private final SplittableRandom root;
+    private final AtomicInteger homes;
+    private final ThreadLocal<Local> locals;
+
+    // construct an empty randomized queue with one shard per available processor
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors(), System.nanoTime());
+    }
+
+    // construct an empty randomized queue, thread streams are split from seed
+    public ConcurrentRandomizedQueue(int shardCount, long seed) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        // a generic array cannot be created, every element is a Shard<Item> set right below
+        @SuppressWarnings("unchecked")
+        Shard<Item>[] created = (Shard<Item>[]) new Shard<?>[shardCount];
+        shards = created;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>();
+        }
+        root = new SplittableRandom(seed);
+        homes = new AtomicInteger();
+        locals = ThreadLocal.withInitial(this::newLocal);
+    }
+
+    // is the randomized queue empty? a snapshot
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // return the number of items on the randomized queue, a snapshot
+    public int size() {
+        int size = 0;
+        for (Shard<Item> shard : shards) {
+            size += shard.n;
+        }
+        return size;
+    }
+
+    // add the item to the calling thread's home shard
+    public void enqueue(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+        Shard<Item> shard = shards[locals.get().home];
+        synchronized (shard) {
+            shard.add(item);
+        }
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        return pick(true);
+    }
+
+    // return a random item (but do not remove it)
+    public Item sample() {
+        return pick(false);
+    }
+
+    // weakly consistent iterator in random order over a copy of the items, shard by shard
+    public Iterator<Item> iterator() {
+        int size = size();
+        Object[] copy = new Object[size];
+        int n = 0;
+        for (Shard<Item> shard : shards) {
+            synchronized (shard) {
+                if (n + shard.n > copy.length) {
+                    copy = Arrays.copyOf(copy, n + shard.n);
+                }
+                System.arraycopy(shard.items, 0, copy, n, shard.n);
+                n += shard.n;
+            }
+        }
+        SplittableRandom random = locals.get().random;
+        for (int i = n - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            Object tmp = copy[i];
+            copy[i] = copy[swap];
+            copy[swap] = tmp;
+        }
+        Object[] items = copy;
+        int length = n;
+        return new Iterator<Item>() {
+            private int p = 0;
+
+            @Override
+            public boolean hasNext() {
+                return p < length;
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (Item) items[p++];
+            }
+        };
+    }
+
+    /*
+    * unit testing
+    * usage: [threads] [items] [draws]
+    * 1. threads enqueue items concurrently (thread i enqueues i + 1 shares, so shards are uneven),
+    *    then draws samples are taken and a chi-square statistic against the uniform distribution is printed
+    * 2. threads dequeue concurrently until empty, every item must come out exactly once
+    * */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int draws = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(threads, 20210221L);
+        int shares = threads * (threads + 1) / 2;
+        int[] from = new int[threads + 1];
+        for (int i = 0; i < threads; i++) {
+            from[i + 1] = from[i] + (int) ((long) items * (i + 1) / shares);
+        }
+        from[threads] = items;
+        runAll(threads, i -> {
+            for (int item = from[i]; item < from[i + 1]; item++) {
+                queue.enqueue(item);
+            }
+        });
+        StdOut.print("shard sizes:");
+        for (Shard<Integer> shard : queue.shards) {
+            StdOut.print(" " + shard.n);
+        }
+        StdOut.println();
+
+        long[] counts = new long[items];
+        for (int i = 0; i < draws; i++) {
+            counts[queue.sample()]++;
+        }
+        double expected = draws * 1D / items;
+        double chiSquare = 0D;
+        for (long count : counts) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        int df = items - 1;
+        // wilson-hilferty: (x / df)^(1/3) is about normal with mean 1 - 2 / (9 df) and variance 2 / (9 df)
+        double z = (Math.cbrt(chiSquare / df) - (1 - 2D / (9 * df))) / Math.sqrt(2D / (9 * df));
+        StdOut.printf("chi-square = %.1f, df = %d, z = %.2f (|z| < 2.58 at the 1%% level)%n", chiSquare, df, z);
+
+        AtomicIntegerArray taken = new AtomicIntegerArray(items);
+        runAll(threads, i -> {
+            while (true) {
+                int item;
+                try {
+                    item = queue.dequeue();
+                } catch (NoSuchElementException e) {
+                    return;
+                }
+                if (taken.getAndIncrement(item) != 0) {
+                    throw new IllegalStateException("item " + item + " dequeued twice");
+                }
+            }
+        });
+        for (int i = 0; i < items; i++) {
+            if (taken.get(i) != 1) {
+                throw new IllegalStateException("item " + i + " lost");
+            }
+        }
+        StdOut.println("concurrent dequeue: every item exactly once");
+    }
+
+    private Local newLocal() {
+        SplittableRandom random;
+        synchronized (root) {
+            random = root.split();
+        }
+        return new Local(random, Math.floorMod(homes.getAndIncrement(), shards.length));
+    }
+
+    private Item pick(boolean remove) {
+        SplittableRandom random = locals.get().random;
+        while (true) {
+            int total = size();
+            if (total == 0) {
+                throw new NoSuchElementException();
+            }
+            int r = random.nextInt(total);
+            Shard<Item> shard = shards[shards.length - 1];
+            for (Shard<Item> candidate : shards) {
+                int n = candidate.n;
+                if (r < n) {
+                    shard = candidate;
+                    break;
+                }
+                r -= n;
+            }
+            synchronized (shard) {
+                if (shard.n == 0) {
+                    continue;
+                }
+                int index = random.nextInt(shard.n);
+                return remove ? shard.remove(index) : shard.items[index];
+            }
+        }
+    }
+
+    private static void runAll(int threads, IntConsumer task) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            new Thread(() -> {
+                try {
+                    task.accept(index);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+    }
+
+    private static class Local {
+        private final SplittableRandom random;
+        private final int home;
+
+        Local(SplittableRandom random, int home) {
+            this.random = random;
+            this.home = home;
+        }
+    }
+
+    // the array of RandomizedQueue, guarded by the shard's monitor; n is volatile for lock-free size reads
+    private static class Shard<Item> {
+        private Item[] items = (Item[]) new Object[8];
+        private volatile int n;
+
+        void add(Item item) {
+            if (n == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[n] = item;
+            n = n + 1;
+        }
+
+        Item remove(int index) {
+            int last = n - 1;
+            Item res = items[index];
+            items[index] = items[last];
+            items[last] = null;
+            n = last;
+            if (items.length > 8 && last < items.length / 4) {
+                items = Arrays.copyOf(items, items.length / 2);
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ * RingDeque specialised to int, values are stored unboxed in a circular int[]
+ * the iterator is a PrimitiveIterator.OfInt, nextInt() does not box
+ * */
+public class IntDeque implements Iterable<Integer> {
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] items;
+    private int head;
+    private int n;
+
+    // construct an empty deque
+    public IntDeque() {
+        items = new int[MIN_CAPACITY];
+        head = 0;
+        n = 0;
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return n;
+    }
+
+    // add the item to the front
+    public void addFirst(int item) {
+        if (n == items.length) {
+            resize(items.length * 2);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        n++;
+    }
+
+    // add the item to the back
+    public void addLast(int item) {
+        if (n == items.length) {
+            resize(items.length * 2);
+        }
+        items[(head + n) & (items.length - 1)] = item;
+        n++;
+    }
+
+    // remove and return the item from the front
+    public int removeFirst() {
+        emptyCheck();
+        int res = items[head];
+        head = (head + 1) & (items.length - 1);
+        n--;
+        shrink();
+        return res;
+    }
+
+    // remove and return the item from the back
+    public int removeLast() {
+        emptyCheck();
+        int res = items[(head + n - 1) & (items.length - 1)];
+        n--;
+        shrink();
+        return res;
+    }
+
+    // return an iterator over items in order from front to back
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int p = 0;
+
+            @Override
+            public boolean hasNext() {
+                return p < n;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items[(head + p++) & (items.length - 1)];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        IntDeque deque = new IntDeque();
+        for (int i = 5; i > 0; i--) {
+            deque.addFirst(i);
+        }
+        for (int i = 6; i <= 20; i++) {
+            deque.addLast(i);
+        }
+        StdOut.println("current deque size: " + deque.size());
+        StdOut.println("output(front to back order): ");
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            StdOut.print(iterator.nextInt() + "\t");
+        }
+        StdOut.println();
+        StdOut.println("remove last element: " + deque.removeLast());
+        StdOut.println("remove first element: " + deque.removeFirst());
+    }
+
+    private void shrink() {
+        if (items.length > MIN_CAPACITY && n < items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // copy into a new array of the given capacity, front item at index 0
+    private void resize(int capacity) {
+        int[] updated = new int[capacity];
+        int first = Math.min(n, items.length - head);
+        System.arraycopy(items, head, updated, 0, first);
+        System.arraycopy(items, 0, updated, first, n - first);
+        items = updated;
+        head = 0;
+    }
+
+    private void emptyCheck() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+}
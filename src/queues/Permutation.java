@@ -2,16 +2,31 @@ package queues;
 
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 public class Permutation {
 
+    // usage: k [stream]
     public static void main(String[] args) {
         if (args.length == 0) {
             throw new IllegalArgumentException();
         }
         int k = Integer.parseInt(args[0]);
+        if (args.length > 1 && "stream".equals(args[1])) {
+            stream(k);
+            return;
+        }
         RandomizedQueue<String> queue = new RandomizedQueue<>();
         while (!StdIn.isEmpty()) {
             queue.enqueue(StdIn.readString());
@@ -21,4 +36,149 @@ public class Permutation {
             StdOut.println(iterator.next());
         }
     }
+
+    /*
+    * reservoir sampling with algorithm L: only k strings are ever held
+    * after the reservoir is full, the number of tokens to skip before the next replacement is drawn
+    * from a geometric distribution, so skipped tokens cost no random draw and are never decoded into strings
+    * every k-subset of the input is equally likely; the reservoir is shuffled before printing
+    * so the output order is uniform too
+    * */
+    private static void stream(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (k == 0) {
+            return;
+        }
+        TokenReader reader = new TokenReader(new FileInputStream(FileDescriptor.in).getChannel());
+        String[] reservoir = new String[k];
+        for (int i = 0; i < k; i++) {
+            reservoir[i] = reader.next();
+            if (reservoir[i] == null) {
+                throw new NoSuchElementException();
+            }
+        }
+        double w = Math.exp(Math.log(random()) / k);
+        while (true) {
+            long skip = (long) Math.floor(Math.log(random()) / Math.log(1 - w));
+            if (!reader.skip(skip)) {
+                break;
+            }
+            String next = reader.next();
+            if (next == null) {
+                break;
+            }
+            reservoir[StdRandom.uniform(k)] = next;
+            w *= Math.exp(Math.log(random()) / k);
+        }
+        StdRandom.shuffle(reservoir);
+        for (String s : reservoir) {
+            StdOut.println(s);
+        }
+    }
+
+    // uniform in (0, 1], so its log is finite
+    private static double random() {
+        return 1 - StdRandom.uniform();
+    }
+
+    // whitespace separated utf-8 tokens from a channel through one reusable direct buffer
+    private static class TokenReader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        private byte[] token = new byte[64];
+        private boolean eof;
+
+        TokenReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        // next token, null at end of input
+        String next() {
+            if (!skipWhitespace()) {
+                return null;
+            }
+            int length = 0;
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get(buffer.position());
+                    if (isWhitespace(b)) {
+                        return new String(token, 0, length, StandardCharsets.UTF_8);
+                    }
+                    if (length == token.length) {
+                        token = Arrays.copyOf(token, length * 2);
+                    }
+                    token[length++] = b;
+                    buffer.position(buffer.position() + 1);
+                }
+                if (!fill()) {
+                    return new String(token, 0, length, StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        // skips count tokens without decoding them, false if the input ends first
+        boolean skip(long count) {
+            for (long i = 0; i < count; i++) {
+                if (!skipWhitespace()) {
+                    return false;
+                }
+                boolean inToken = true;
+                while (inToken) {
+                    while (buffer.hasRemaining()) {
+                        if (isWhitespace(buffer.get(buffer.position()))) {
+                            inToken = false;
+                            break;
+                        }
+                        buffer.position(buffer.position() + 1);
+                    }
+                    if (inToken && !fill()) {
+                        inToken = false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // false if only whitespace is left
+        private boolean skipWhitespace() {
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    if (!isWhitespace(buffer.get(buffer.position()))) {
+                        return true;
+                    }
+                    buffer.position(buffer.position() + 1);
+                }
+                if (!fill()) {
+                    return false;
+                }
+            }
+        }
+
+        private boolean fill() {
+            if (eof) {
+                return false;
+            }
+            buffer.clear();
+            try {
+                int read = 0;
+                while (read == 0) {
+                    read = channel.read(buffer);
+                }
+                if (read < 0) {
+                    eof = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+            return buffer.hasRemaining();
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f' || b == 0x0b;
+        }
+    }
 }
@@ -3,7 +3,11 @@ package queues;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
@@ -35,6 +39,84 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         items[n++] = item;
     }
 
+    // add every item, capacity is reserved once for the whole batch
+    public void enqueueAll(Item[] batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Item item : batch) {
+            validateItem(item);
+        }
+        reserve(batch.length);
+        System.arraycopy(batch, 0, items, n, batch.length);
+        n += batch.length;
+    }
+
+    // add every item of the collection, capacity is reserved once for the whole batch
+    public void enqueueAll(Collection<? extends Item> batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Item item : batch) {
+            validateItem(item);
+        }
+        reserve(batch.size());
+        for (Item item : batch) {
+            items[n++] = item;
+        }
+    }
+
+    /*
+    * remove up to max random items into target, in random order, returns how many were moved
+    * the picks are a partial fisher-yates shuffle into the tail of the array, then the array shrinks once
+    * n drops with every pick, so if target.add throws, the item it refused goes back and nothing else is lost
+    * */
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null || max < 0) {
+            throw new IllegalArgumentException();
+        }
+        int moved = 0;
+        try {
+            while (moved < max && n > 0) {
+                int last = n - 1;
+                int index = StdRandom.uniform(n);
+                Item picked = items[index];
+                items[index] = items[last];
+                items[last] = null;
+                n = last;
+                try {
+                    target.add(picked);
+                } catch (RuntimeException | Error e) {
+                    items[n++] = picked;
+                    throw e;
+                }
+                moved++;
+            }
+            return moved;
+        } finally {
+            int capacity = items.length;
+            while (capacity > 2 && n < capacity / 4) {
+                capacity /= 2;
+            }
+            if (capacity != items.length) {
+                items = resize(capacity);
+            }
+        }
+    }
+
+    // return k distinct random items (but do not remove them), in random order, O(k)
+    public List<Item> sample(int k) {
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException();
+        }
+        List<Item> res = new ArrayList<>(k);
+        Iterator<Item> iterator = new LazyIterator();
+        while (k-- > 0) {
+            res.add(iterator.next());
+        }
+        return res;
+    }
+
     // remove and return a random item
     public Item dequeue() {
         checkEmpty();
@@ -60,6 +142,12 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return new RandomizedIterator();
     }
 
+    // return an independent iterator over items in random order that shuffles lazily:
+    // O(1) to create, O(k) time and memory for the first k items, nothing is copied
+    public Iterator<Item> lazyIterator() {
+        return new LazyIterator();
+    }
+
     // unit testing (required)
     public static void main(String[] args) {
         RandomizedQueue<Integer> randomizedQueue = new RandomizedQueue<>();
@@ -75,7 +163,14 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             StdOut.print(i + "\t");
         }
         StdOut.println();
+        StdOut.println("output(lazy random order): ");
+        Iterator<Integer> lazy = randomizedQueue.lazyIterator();
+        while (lazy.hasNext()) {
+            StdOut.print(lazy.next() + "\t");
+        }
+        StdOut.println();
         StdOut.println("sample :" + randomizedQueue.sample());
+        StdOut.println("sample 2 distinct: " + randomizedQueue.sample(2));
         StdOut.println("randomly remove an element: " + randomizedQueue.dequeue());
         StdOut.println("output(random order): ");
         for (int i : randomizedQueue) {
@@ -87,6 +182,17 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return StdRandom.uniform(n);
     }
 
+    // grow once so that m more items keep the array at most half full, as enqueue does
+    private void reserve(int m) {
+        int capacity = items.length;
+        while (n + m >= capacity / 2) {
+            capacity *= 2;
+        }
+        if (capacity != items.length) {
+            items = resize(capacity);
+        }
+    }
+
     private Item[] resize(int n) {
         if (n <= 2) {
             return items;
@@ -141,4 +247,91 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             return items[shuffledIndex[p++]];
         }
     }
+
+    /*
+    * fisher-yates shuffle of the index range [0, n) done one step per next()
+    * the shuffled array is never materialized: only positions that were swapped away from identity
+    * are kept, in an open-addressing int -> int map, so k calls touch O(k) entries
+    * */
+    private class LazyIterator implements Iterator<Item> {
+        private final int size;
+        private int p;
+        private int[] keys;
+        private int[] values;
+        private int used;
+
+        public LazyIterator() {
+            size = n;
+            p = 0;
+            keys = new int[8];
+            values = new int[8];
+            Arrays.fill(keys, -1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return p < size;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int j = StdRandom.uniform(p, size);
+            int picked = get(j);
+            // position p is never read again, so only j needs to remember what was at p
+            if (j != p) {
+                put(j, get(p));
+            }
+            p++;
+            return items[picked];
+        }
+
+        // value at position i of the virtual shuffled array
+        private int get(int i) {
+            int mask = keys.length - 1;
+            for (int slot = hash(i) & mask; keys[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == i) {
+                    return values[slot];
+                }
+            }
+            return i;
+        }
+
+        private void put(int i, int value) {
+            if (2 * (used + 1) > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = hash(i) & mask;
+            while (keys[slot] != -1 && keys[slot] != i) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                keys[slot] = i;
+                used++;
+            }
+            values[slot] = value;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+            used = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private int hash(int i) {
+            int h = i * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+    }
 }
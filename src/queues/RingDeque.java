@@ -0,0 +1,161 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * same api as Deque, items kept in a circular array instead of linked nodes
+ * no per-item allocation, capacity is a power of two so wrapping is a mask,
+ * the array doubles when full and halves when a quarter full
+ * */
+public class RingDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private Item[] items;
+    private int head;
+    private int n;
+
+    // construct an empty deque
+    public RingDeque() {
+        items = (Item[]) new Object[MIN_CAPACITY];
+        head = 0;
+        n = 0;
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return n;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        validateItem(item);
+        if (n == items.length) {
+            resize(items.length * 2);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        n++;
+    }
+
+    // add the item to the back
+    public void addLast(Item item) {
+        validateItem(item);
+        if (n == items.length) {
+            resize(items.length * 2);
+        }
+        items[(head + n) & (items.length - 1)] = item;
+        n++;
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        emptyCheck();
+        Item res = items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        n--;
+        shrink();
+        return res;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        emptyCheck();
+        int tail = (head + n - 1) & (items.length - 1);
+        Item res = items[tail];
+        items[tail] = null;
+        n--;
+        shrink();
+        return res;
+    }
+
+    // return an iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            private int p = 0;
+
+            @Override
+            public boolean hasNext() {
+                return p < n;
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items[(head + p++) & (items.length - 1)];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        RingDeque<Integer> deque = new RingDeque<>();
+        StdOut.println("initial deque size: " + deque.size());
+        StdOut.println("is deque empty: " + deque.isEmpty());
+        for (int i = 5; i > 0; i--) {
+            deque.addFirst(i);
+        }
+        for (int i = 6; i <= 20; i++) {
+            deque.addLast(i);
+        }
+        StdOut.println("current deque size: " + deque.size());
+        StdOut.println("output(front to back order): ");
+        for (int i : deque) {
+            StdOut.print(i + "\t");
+        }
+        StdOut.println();
+        StdOut.println("remove last element: " + deque.removeLast());
+        StdOut.println("remove first element: " + deque.removeFirst());
+        while (deque.size() > 2) {
+            deque.removeFirst();
+        }
+        StdOut.println("output(front to back order): ");
+        for (int i : deque) {
+            StdOut.print(i + "\t");
+        }
+        StdOut.println();
+    }
+
+    private void shrink() {
+        if (items.length > MIN_CAPACITY && n < items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // copy into a new array of the given capacity, front item at index 0
+    private void resize(int capacity) {
+        Item[] updated = (Item[]) new Object[capacity];
+        int first = Math.min(n, items.length - head);
+        System.arraycopy(items, head, updated, 0, first);
+        System.arraycopy(items, 0, updated, first, n - first);
+        items = updated;
+        head = 0;
+    }
+
+    private void emptyCheck() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    private void validateItem(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.NoSuchElementException;
+
+/*
+ * randomized queue where each item is drawn with probability proportional to its weight
+ * items sit in an array as in RandomizedQueue (dequeue swaps the last item into the hole),
+ * a fenwick tree over the same positions holds the weight prefix sums:
+ * sample is O(log n), a descent of the tree, enqueue and dequeue are O(log^2 n)
+ *
+ * the capacity is a power of two so the descent can start from its highest bit
+ * a changed weight is never applied to the tree as a +delta / -delta: in floating point a light weight
+ * added next to a heavy one is absorbed and does not come back when the heavy one is subtracted
+ * instead every node on the update path is recomputed from weights[] and its children, so each node
+ * is always the sum of the weights currently under it, whatever came and went before
+ * */
+public class WeightedRandomizedQueue<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private int n;
+    private Item[] items;
+    private double[] weights;
+    // tree[i] (1-based) is the sum of weights[i - lowbit(i), i)
+    private double[] tree;
+
+    // construct an empty weighted randomized queue
+    public WeightedRandomizedQueue() {
+        n = 0;
+        items = (Item[]) new Object[MIN_CAPACITY];
+        weights = new double[MIN_CAPACITY];
+        tree = new double[MIN_CAPACITY + 1];
+    }
+
+    // is the queue empty?
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    // return the number of items on the queue
+    public int size() {
+        return n;
+    }
+
+    // total weight of the items on the queue
+    public double totalWeight() {
+        return prefix(n);
+    }
+
+    // add the item with the given weight, weight must be positive and finite
+    public void enqueue(Item item, double weight) {
+        if (item == null || !(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException();
+        }
+        if (n == items.length) {
+            resize(items.length * 2);
+        }
+        items[n] = item;
+        weights[n] = weight;
+        update(n);
+        n++;
+    }
+
+    // remove and return an item, chosen with probability weight / totalWeight
+    public Item dequeue() {
+        int index = randomIndex();
+        Item res = items[index];
+        int last = n - 1;
+        items[index] = items[last];
+        weights[index] = weights[last];
+        items[last] = null;
+        weights[last] = 0D;
+        update(last);
+        if (index != last) {
+            update(index);
+        }
+        n = last;
+        if (items.length > MIN_CAPACITY && n < items.length / 4) {
+            resize(items.length / 2);
+        }
+        return res;
+    }
+
+    // return an item chosen with probability weight / totalWeight (but do not remove it)
+    public Item sample() {
+        return items[randomIndex()];
+    }
+
+    /*
+    * unit testing
+    * usage: [draws], items 1..4 carry weights 1..4, sampled frequencies should be close to 0.1, 0.2, 0.3, 0.4
+    * then a skewed queue: six items of weight 1 and one of weight 1e17, the heavy one is dequeued
+    * and the six light ones must come out again equally often
+    * */
+    public static void main(String[] args) {
+        int draws = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        WeightedRandomizedQueue<Integer> queue = new WeightedRandomizedQueue<>();
+        for (int i = 1; i <= 4; i++) {
+            queue.enqueue(i, i);
+        }
+        StdOut.println("current queue size: " + queue.size() + ", total weight: " + queue.totalWeight());
+        long[] counts = new long[5];
+        for (int i = 0; i < draws; i++) {
+            counts[queue.sample()]++;
+        }
+        for (int i = 1; i <= 4; i++) {
+            StdOut.printf("item %d, weight %d: %.4f%n", i, i, counts[i] * 1D / draws);
+        }
+        StdOut.println("output(weighted random order): ");
+        while (!queue.isEmpty()) {
+            StdOut.print(queue.dequeue() + "\t");
+        }
+        StdOut.println();
+
+        WeightedRandomizedQueue<Integer> skewed = new WeightedRandomizedQueue<>();
+        for (int i = 0; i < 6; i++) {
+            skewed.enqueue(i, 1D);
+        }
+        skewed.enqueue(6, 1e17);
+        // the heavy item holds all but 6e-17 of the weight
+        if (skewed.dequeue() != 6) {
+            throw new IllegalStateException("a light item was drawn before the heavy one");
+        }
+        long[] light = new long[6];
+        for (int i = 0; i < draws; i++) {
+            light[skewed.sample()]++;
+        }
+        StdOut.printf("skewed weights, total weight %.1f after removing 1e17:", skewed.totalWeight());
+        for (long count : light) {
+            StdOut.printf(" %.4f", count * 1D / draws);
+        }
+        StdOut.println();
+        for (long count : light) {
+            if (count == 0) {
+                throw new IllegalStateException("a light item is never sampled");
+            }
+        }
+    }
+
+    // walk down the tree to the first position whose prefix sum exceeds a uniform draw
+    private int randomIndex() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        double r = StdRandom.uniform() * prefix(n);
+        int index = 0;
+        for (int step = Integer.highestOneBit(items.length); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= items.length && tree[next] <= r) {
+                index = next;
+                r -= tree[next];
+            }
+        }
+        // rounding can push the draw past the last item
+        return Math.min(index, n - 1);
+    }
+
+    // sum of weights[0, i)
+    private double prefix(int i) {
+        double sum = 0D;
+        for (; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // recompute the nodes covering weights[index]: node i is weights[i - 1] plus its children i - 1, i - 2, i - 4 ..
+    private void update(int index) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            double sum = weights[i - 1];
+            for (int step = 1; step < (i & -i); step <<= 1) {
+                sum += tree[i - step];
+            }
+            tree[i] = sum;
+        }
+    }
+
+    private void resize(int capacity) {
+        Item[] updatedItems = (Item[]) new Object[capacity];
+        double[] updatedWeights = new double[capacity];
+        System.arraycopy(items, 0, updatedItems, 0, n);
+        System.arraycopy(weights, 0, updatedWeights, 0, n);
+        items = updatedItems;
+        weights = updatedWeights;
+        // linear-time build: every node pushes its sum to its parent
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
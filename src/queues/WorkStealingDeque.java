@@ -0,0 +1,276 @@
+package queues;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * chase-lev work-stealing deque
+ * one owner thread pushes and pops at the bottom (lifo), any number of thieves steal from the top (fifo)
+ * owner operations are wait-free: push never waits, pop only races (one cas) for the very last item
+ * steal is lock-free: it fails only because another steal or the owner's pop took the item
+ *
+ * [top, bottom) indexes a circular array that only grows, an old array is never written again,
+ * so a slow thief still reading it sees a valid item and then loses its cas on top
+ * stolen slots are not cleared (the owner may already reuse them), a stolen item stays referenced
+ * until the owner wraps around and overwrites its slot
+ * */
+public class WorkStealingDeque<Item> implements Iterable<Item> {
+    private static final int INITIAL_CAPACITY = 32;
+    private static final VarHandle TOP;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(WorkStealingDeque.class, "top", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long top;
+    private volatile long bottom;
+    private volatile Object[] array;
+
+    // construct an empty deque
+    public WorkStealingDeque() {
+        array = new Object[INITIAL_CAPACITY];
+    }
+
+    // is the deque empty? a snapshot, may be stale as soon as it returns
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // number of items, a snapshot
+    public int size() {
+        long t = top;
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    // add the item at the bottom, owner thread only
+    public void push(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException();
+        }
+        long b = bottom;
+        long t = top;
+        Object[] a = array;
+        if (b - t > a.length - 1) {
+            a = grow(a, t, b);
+        }
+        SLOT.setRelease(a, (int) b & (a.length - 1), item);
+        bottom = b + 1;
+    }
+
+    // remove and return the item at the bottom, null if empty, owner thread only
+    public Item pop() {
+        long b = bottom - 1;
+        Object[] a = array;
+        // volatile write then volatile read: a thief cannot miss the new bottom while we read top
+        bottom = b;
+        long t = top;
+        if (t > b) {
+            bottom = b + 1;
+            return null;
+        }
+        int index = (int) b & (a.length - 1);
+        Item item = (Item) SLOT.getAcquire(a, index);
+        if (t == b) {
+            // last item, race the thieves for it
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+                item = null;
+            }
+            bottom = b + 1;
+            return item;
+        }
+        // thieves only read slot top < b, so the owner may clear slot b
+        SLOT.setRelease(a, index, null);
+        return item;
+    }
+
+    // remove and return the item at the top, null if empty or another thread won the race, any thread
+    public Item steal() {
+        long t = top;
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        Object[] a = array;
+        Item item = (Item) SLOT.getAcquire(a, (int) t & (a.length - 1));
+        if (item == null || !TOP.compareAndSet(this, t, t + 1)) {
+            return null;
+        }
+        return item;
+    }
+
+    /*
+    * weakly consistent iterator from top to bottom over a snapshot of [top, bottom),
+    * never throws ConcurrentModificationException, may return items removed after it was created
+    * and does not see items pushed after it was created
+    * */
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            // bottom first: the array read last is at least as new as any growth covering [cur, end)
+            private final long end = bottom;
+            private long cur = top;
+            private final Object[] a = array;
+            private Item next = advance();
+
+            private Item advance() {
+                while (cur < end && end - cur <= a.length) {
+                    Item item = (Item) SLOT.getAcquire(a, (int) cur++ & (a.length - 1));
+                    if (item != null) {
+                        return item;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Item next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Item res = next;
+                next = advance();
+                return res;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /*
+    * stress test and throughput
+    * usage: [thieves] [tasks], the owner pushes tasks and pops some of them back, thieves steal the rest,
+    * every task must be taken exactly once; then the same workload runs on a Deque behind a global lock
+    * */
+    public static void main(String[] args) throws InterruptedException {
+        int thieves = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int tasks = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 22;
+        for (int round = 0; round < 3; round++) {
+            double lockFree = run(tasks(new WorkStealingDeque<>()), thieves, tasks);
+            double locked = run(new LockedDeque<>(), thieves, tasks);
+            StdOut.printf("%d thieves, %d tasks: work-stealing %.1f Mops/s, locked Deque %.1f Mops/s%n",
+                    thieves, tasks, tasks / lockFree / 1e6, tasks / locked / 1e6);
+        }
+    }
+
+    private Object[] grow(Object[] a, long t, long b) {
+        Object[] updated = new Object[a.length * 2];
+        for (long i = t; i < b; i++) {
+            updated[(int) i & (updated.length - 1)] = a[(int) i & (a.length - 1)];
+        }
+        array = updated;
+        return updated;
+    }
+
+    // the three operations the stress test drives, pop and steal return null when there is nothing to take
+    private interface Tasks<Item> {
+        void push(Item item);
+
+        Item pop();
+
+        Item steal();
+    }
+
+    // the work-stealing deque behind the same interface, so both pay the same interface call
+    private static <Item> Tasks<Item> tasks(WorkStealingDeque<Item> deque) {
+        return new Tasks<Item>() {
+            public void push(Item item) {
+                deque.push(item);
+            }
+
+            public Item pop() {
+                return deque.pop();
+            }
+
+            public Item steal() {
+                return deque.steal();
+            }
+        };
+    }
+
+    // the same three operations on a Deque with one global lock, the setup this class replaces
+    private static class LockedDeque<Item> implements Tasks<Item> {
+        private final Deque<Item> deque = new Deque<>();
+
+        public synchronized void push(Item item) {
+            deque.addLast(item);
+        }
+
+        public synchronized Item pop() {
+            return deque.isEmpty() ? null : deque.removeLast();
+        }
+
+        public synchronized Item steal() {
+            return deque.isEmpty() ? null : deque.removeFirst();
+        }
+    }
+
+    // returns elapsed seconds, throws if a task is lost or taken twice
+    private static double run(Tasks<Integer> deque, int thieves, int tasks) throws InterruptedException {
+        AtomicIntegerArray taken = new AtomicIntegerArray(tasks);
+        AtomicLong done = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(thieves);
+        Thread[] threads = new Thread[thieves];
+        for (int i = 0; i < thieves; i++) {
+            threads[i] = new Thread(() -> {
+                while (done.get() < tasks) {
+                    Integer task = deque.steal();
+                    if (task != null) {
+                        take(taken, task);
+                        done.incrementAndGet();
+                    }
+                }
+                finished.countDown();
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int i = 0; i < tasks; i++) {
+            deque.push(i);
+            // the owner works on one of every four of its own tasks
+            if ((i & 3) == 0) {
+                Integer own = deque.pop();
+                if (own != null) {
+                    take(taken, own);
+                    done.incrementAndGet();
+                }
+            }
+        }
+        while (done.get() < tasks) {
+            Integer own = deque.pop();
+            if (own != null) {
+                take(taken, own);
+                done.incrementAndGet();
+            }
+        }
+        finished.await();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void take(AtomicIntegerArray taken, int task) {
+        if (taken.getAndIncrement(task) != 0) {
+            throw new IllegalStateException("task " + task + " taken twice");
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package uf;
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+ * percolation on an n-by-n grid where sites can be closed again
+ *
+ * online: opens are unioned incrementally like Percolation, a union-find cannot split,
+ * so a close only marks the grid dirty and the next query rebuilds it from the open set, O(n^2)
+ * a run of changes between two queries costs one rebuild, but a query after every close costs
+ * a full rebuild per close, no better than rebuilding by hand: the online mode is for opens
+ * and occasional closes, a trace that closes and queries often should go through replay()
+ *
+ * offline: replay() answers percolates() after every operation of a known trace
+ * by divide and conquer over time (each open interval of a site is added to O(log m) segment tree nodes,
+ * the tree is walked depth first on a SiteUF journal and rolled back on the way up),
+ * O(m log m log n) in total instead of a rebuild per change
+ * */
+public class DynamicPercolation {
+    private final int n;
+    // open set, the union-find is derived from it
+    private final long[] open;
+    private int numOfOpenSites;
+    private final SiteUF sites;
+    private boolean dirty;
+    private boolean percolates;
+
+    // creates n-by-n grid, with all sites initially blocked
+    public DynamicPercolation(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.n = n;
+        this.open = new long[(n * n + 63) >>> 6];
+        this.sites = new SiteUF(n * n);
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        validate(row, col);
+        int index = getIndex(row, col);
+        if (isSet(index)) {
+            return;
+        }
+        open[index >>> 6] |= 1L << index;
+        numOfOpenSites++;
+        if (!dirty) {
+            connect(index, row, col, true);
+        }
+    }
+
+    // closes the site (row, col) if it is open
+    public void close(int row, int col) {
+        validate(row, col);
+        int index = getIndex(row, col);
+        if (!isSet(index)) {
+            return;
+        }
+        open[index >>> 6] &= ~(1L << index);
+        numOfOpenSites--;
+        dirty = true;
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        validate(row, col);
+        return isSet(getIndex(row, col));
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        if (!isOpen(row, col)) {
+            return false;
+        }
+        rebuildIfDirty();
+        return (sites.flags(getIndex(row, col)) & SiteUF.TOP) != 0;
+    }
+
+    // returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOfOpenSites;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        rebuildIfDirty();
+        return percolates;
+    }
+
+    /*
+    * percolates() after every operation of a trace, computed offline
+    * operation t opens (opens[t]) or closes (!opens[t]) site (rows[t], cols[t])
+    * */
+    public static boolean[] replay(int n, int[] rows, int[] cols, boolean[] opens) {
+        if (n <= 0 || rows == null || cols == null || opens == null
+                || rows.length != cols.length || rows.length != opens.length) {
+            throw new IllegalArgumentException();
+        }
+        return new TimeSegments(n, rows, cols, opens).solve();
+    }
+
+    /*
+    * test client and benchmark
+    * usage: n m, a random trace of m opens (probability 0.6) and closes of random sites,
+    * compares a rebuild after every change, the online grid and the offline replay
+    * a site is open when its last operation was an open, so the open fraction only climbs to 0.6,
+    * just above the percolation threshold (about 0.593), once every site has been hit: m should be
+    * several times n^2 (e.g. 50 20000), with m < n^2 most sites are never touched and nothing percolates
+    * */
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int m = Integer.parseInt(args[1]);
+        int[] rows = new int[m];
+        int[] cols = new int[m];
+        boolean[] opens = new boolean[m];
+        SplittableRandom random = new SplittableRandom(20210221L);
+        for (int t = 0; t < m; t++) {
+            rows[t] = random.nextInt(n) + 1;
+            cols[t] = random.nextInt(n) + 1;
+            opens[t] = random.nextDouble() < 0.6;
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        boolean[] expected = new boolean[m];
+        boolean[][] grid = new boolean[n + 1][n + 1];
+        Percolation rebuilt = new Percolation(n);
+        for (int t = 0; t < m; t++) {
+            grid[rows[t]][cols[t]] = opens[t];
+            rebuilt.reset();
+            for (int row = 1; row <= n; row++) {
+                for (int col = 1; col <= n; col++) {
+                    if (grid[row][col]) {
+                        rebuilt.open(row, col);
+                    }
+                }
+            }
+            expected[t] = rebuilt.percolates();
+        }
+        StdOut.printf("rebuild per change %10.3f s%n", stopwatch.elapsedTime());
+        int percolating = 0;
+        for (boolean answer : expected) {
+            if (answer) {
+                percolating++;
+            }
+        }
+        StdOut.printf("open at the end %.3f, percolates after %.3f of the operations%n",
+                rebuilt.numberOfOpenSites() * 1D / (n * n), percolating * 1D / m);
+
+        stopwatch = new Stopwatch();
+        DynamicPercolation online = new DynamicPercolation(n);
+        for (int t = 0; t < m; t++) {
+            if (opens[t]) {
+                online.open(rows[t], cols[t]);
+            }else {
+                online.close(rows[t], cols[t]);
+            }
+            if (online.percolates() != expected[t]) {
+                throw new IllegalStateException("online, operation " + t);
+            }
+        }
+        StdOut.printf("online             %10.3f s%n", stopwatch.elapsedTime());
+
+        stopwatch = new Stopwatch();
+        boolean[] offline = replay(n, rows, cols, opens);
+        StdOut.printf("offline replay     %10.3f s%n", stopwatch.elapsedTime());
+        if (!Arrays.equals(offline, expected)) {
+            throw new IllegalStateException("offline");
+        }
+    }
+
+    private boolean isSet(int index) {
+        return (open[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void rebuildIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        sites.reset();
+        percolates = false;
+        dirty = false;
+        for (int index = 0; index < n * n; index++) {
+            if (isSet(index)) {
+                connect(index, index / n + 1, index % n + 1, false);
+            }
+        }
+    }
+
+    // open the site in the union-find, all = false only links to neighbours visited earlier by a rebuild
+    private void connect(int index, int row, int col, boolean all) {
+        int flags = 0;
+        if (row == 1) {
+            flags |= SiteUF.TOP;
+        }
+        if (row == n) {
+            flags |= SiteUF.BOTTOM;
+        }
+        sites.open(index, flags);
+        if (all && col < n && isSet(index + 1)) {
+            sites.union(index, index + 1);
+        }
+        if (col > 1 && isSet(index - 1)) {
+            sites.union(index, index - 1);
+        }
+        if (all && row < n && isSet(index + n)) {
+            sites.union(index, index + n);
+        }
+        if (row > 1 && isSet(index - n)) {
+            sites.union(index, index - n);
+        }
+        if ((sites.flags(index) & (SiteUF.TOP | SiteUF.BOTTOM)) == (SiteUF.TOP | SiteUF.BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    private void validate(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private int getIndex(int row, int col) {
+        return (row - 1) * n + col - 1;
+    }
+
+    /*
+    * segment tree over operation times [0, m), node lists stored flat (start offsets + site array)
+    * a site open during [from, to) is stored in the O(log m) nodes covering that interval
+    * */
+    private static class TimeSegments {
+        private final int n;
+        private final int m;
+        private final SiteUF sites;
+        private final int[] start;
+        private int[] items;
+        private final boolean[] result;
+
+        TimeSegments(int n, int[] rows, int[] cols, boolean[] opens) {
+            this.n = n;
+            this.m = rows.length;
+            this.sites = new SiteUF(n * n);
+            this.start = new int[4 * Math.max(1, m) + 1];
+            this.result = new boolean[m];
+            int[] openSince = new int[n * n];
+            Arrays.fill(openSince, -1);
+            // two passes over the intervals: count per node, then fill
+            for (int pass = 0; pass < 2; pass++) {
+                if (pass == 1) {
+                    for (int i = 1; i < start.length; i++) {
+                        start[i] += start[i - 1];
+                    }
+                    items = new int[start[start.length - 1]];
+                }
+                for (int t = 0; t < m; t++) {
+                    if (rows[t] < 1 || rows[t] > n || cols[t] < 1 || cols[t] > n) {
+                        throw new IllegalArgumentException();
+                    }
+                    int site = (rows[t] - 1) * n + cols[t] - 1;
+                    if (opens[t] && openSince[site] < 0) {
+                        openSince[site] = t;
+                    }else if (!opens[t] && openSince[site] >= 0) {
+                        add(1, 0, m, openSince[site], t, site, pass);
+                        openSince[site] = -1;
+                    }
+                }
+                for (int t = 0; t < m; t++) {
+                    int site = (rows[t] - 1) * n + cols[t] - 1;
+                    if (openSince[site] >= 0) {
+                        add(1, 0, m, openSince[site], m, site, pass);
+                        openSince[site] = -1;
+                    }
+                }
+            }
+        }
+
+        boolean[] solve() {
+            if (m > 0) {
+                sites.checkpoint();
+                solve(1, 0, m, false);
+            }
+            return result;
+        }
+
+        // pass 0 counts into start[node + 1], pass 1 writes using start[node] as a cursor
+        private void add(int node, int lo, int hi, int from, int to, int site, int pass) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+            if (from <= lo && hi <= to) {
+                if (pass == 0) {
+                    start[node + 1]++;
+                }else {
+                    items[start[node]++] = site;
+                }
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            add(2 * node, lo, mid, from, to, site, pass);
+            add(2 * node + 1, mid, hi, from, to, site, pass);
+        }
+
+        // after pass 1 start[node] is the end of the node's list, which begins at start[node - 1]
+        private void solve(int node, int lo, int hi, boolean percolates) {
+            int mark = sites.mark();
+            for (int i = start[node - 1]; i < start[node]; i++) {
+                percolates |= activate(items[i]);
+            }
+            if (hi - lo == 1) {
+                result[lo] = percolates;
+            }else {
+                int mid = lo + (hi - lo) / 2;
+                solve(2 * node, lo, mid, percolates);
+                solve(2 * node + 1, mid, hi, percolates);
+            }
+            sites.rollback(mark);
+        }
+
+        private boolean activate(int site) {
+            int row = site / n;
+            int col = site % n;
+            int flags = 0;
+            if (row == 0) {
+                flags |= SiteUF.TOP;
+            }
+            if (row == n - 1) {
+                flags |= SiteUF.BOTTOM;
+            }
+            sites.open(site, flags);
+            if (col < n - 1 && sites.isOpen(site + 1)) {
+                sites.union(site, site + 1);
+            }
+            if (col > 0 && sites.isOpen(site - 1)) {
+                sites.union(site, site - 1);
+            }
+            if (row < n - 1 && sites.isOpen(site + n)) {
+                sites.union(site, site + n);
+            }
+            if (row > 0 && sites.isOpen(site - n)) {
+                sites.union(site, site - n);
+            }
+            return (sites.flags(site) & (SiteUF.TOP | SiteUF.BOTTOM)) == (SiteUF.TOP | SiteUF.BOTTOM);
+        }
+    }
+}
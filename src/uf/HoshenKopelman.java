@@ -0,0 +1,190 @@
+package uf;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/*
+ * hoshen-kopelman cluster labeling of a fixed grid of open / blocked sites, streamed one row at a time
+ * only the labels of the previous and the current row are kept, plus a union-find over those labels,
+ * so memory is O(n) for an n-wide grid no matter how many rows are fed
+ *
+ * after every row the surviving roots are renumbered 0..m-1 and carry their size and top flag forward,
+ * a cluster with no site in the new row can never grow again, so it is counted as finished right away
+ * */
+public class HoshenKopelman {
+    private final int n;
+    private int rows;
+    // compact labels of the previous row, -1 for blocked sites
+    private int[] prevLabels;
+    private int[] curLabels;
+    private int prevCount;
+    private final long[] prevSize;
+    private final boolean[] prevTop;
+    // union-find over the previous row labels [0, prevCount) and labels created in the current row
+    private final int[] parent;
+    private final long[] size;
+    private final boolean[] top;
+    private final int[] compact;
+    private long finishedClusters;
+    private long finishedLargest;
+
+    // labeler for a grid with n sites per row
+    public HoshenKopelman(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.n = n;
+        this.prevLabels = new int[n];
+        this.curLabels = new int[n];
+        Arrays.fill(prevLabels, -1);
+        this.prevSize = new long[n];
+        this.prevTop = new boolean[n];
+        // a row holds at most (n + 1) / 2 clusters, so both rows fit in n + 1 labels
+        this.parent = new int[n + 1];
+        this.size = new long[n + 1];
+        this.top = new boolean[n + 1];
+        this.compact = new int[n + 1];
+    }
+
+    // adds the next row, row[i] is true when the site in column i is open
+    public void addRow(boolean[] row) {
+        if (row == null || row.length != n) {
+            throw new IllegalArgumentException();
+        }
+        for (int i = 0; i < prevCount; i++) {
+            parent[i] = i;
+            size[i] = prevSize[i];
+            top[i] = prevTop[i];
+        }
+        int next = prevCount;
+        for (int c = 0; c < n; c++) {
+            if (!row[c]) {
+                curLabels[c] = -1;
+                continue;
+            }
+            int left = c > 0 ? curLabels[c - 1] : -1;
+            int up = prevLabels[c];
+            int label;
+            if (left >= 0) {
+                label = left;
+                if (up >= 0) {
+                    union(left, up);
+                }
+            }else if (up >= 0) {
+                label = up;
+            }else {
+                label = next++;
+                parent[label] = label;
+                size[label] = 0;
+                top[label] = rows == 0;
+            }
+            curLabels[c] = label;
+            size[find(label)]++;
+        }
+        relabel(next);
+        int[] swap = prevLabels;
+        prevLabels = curLabels;
+        curLabels = swap;
+        rows++;
+    }
+
+    // number of rows added so far
+    public int rows() {
+        return rows;
+    }
+
+    // does some cluster connect the first row to the last row added?
+    public boolean percolates() {
+        for (int i = 0; i < prevCount; i++) {
+            if (prevTop[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // number of clusters of open sites in the rows added so far
+    public long numberOfClusters() {
+        return finishedClusters + prevCount;
+    }
+
+    // number of sites in the largest cluster
+    public long largestCluster() {
+        long largest = finishedLargest;
+        for (int i = 0; i < prevCount; i++) {
+            largest = Math.max(largest, prevSize[i]);
+        }
+        return largest;
+    }
+
+    // test client
+    // input: n followed by n rows of n values, 1 for an open site and 0 for a blocked one
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int n = in.readInt();
+        HoshenKopelman labeler = new HoshenKopelman(n);
+        boolean[] row = new boolean[n];
+        while (!in.isEmpty()) {
+            for (int i = 0; i < n; i++) {
+                row[i] = in.readInt() == 1;
+            }
+            labeler.addRow(row);
+        }
+        StdOut.println("percolates = " + labeler.percolates());
+        StdOut.println("clusters = " + labeler.numberOfClusters());
+        StdOut.println("largest cluster = " + labeler.largestCluster());
+    }
+
+    /*
+    * renumber the roots seen in the current row to 0..m-1 and carry their size / top flag forward,
+    * roots of previous row labels that did not reach the current row are finished clusters
+    * */
+    private void relabel(int labels) {
+        Arrays.fill(compact, 0, labels, -1);
+        int count = 0;
+        for (int c = 0; c < n; c++) {
+            if (curLabels[c] < 0) {
+                continue;
+            }
+            int root = find(curLabels[c]);
+            if (compact[root] < 0) {
+                compact[root] = count;
+                prevSize[count] = size[root];
+                prevTop[count] = top[root];
+                count++;
+            }
+            curLabels[c] = compact[root];
+        }
+        for (int i = 0; i < prevCount; i++) {
+            int root = find(i);
+            if (compact[root] == -1) {
+                // -2 marks the root as counted
+                compact[root] = -2;
+                finishedClusters++;
+                finishedLargest = Math.max(finishedLargest, size[root]);
+            }
+        }
+        prevCount = count;
+    }
+
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        top[rootP] |= top[rootQ];
+    }
+}
@@ -0,0 +1,158 @@
+package uf;
+
+/*
+ * shape of a percolation lattice: rows x cols x layers sites, percolating from row 0 to the last row
+ * site index = (row * cols + col) * layers + layer
+ *
+ * a lattice is plain data, not a class hierarchy, so opening a site runs the same loop for every lattice:
+ * neighbours are precomputed (row, col, layer) offsets, degree of them per site class
+ * the class of a site is (row + col) & parityMask, only the hexagonal lattice has two classes
+ *
+ * bonds are identified by slot = site * degree + k for the k-th neighbour of site,
+ * a slot is a bond when the neighbour is inside the lattice and has the larger index, so each bond has one slot
+ * */
+public final class Lattice {
+    final String name;
+    final int rows;
+    final int cols;
+    final int layers;
+    final int degree;
+    final int parityMask;
+    // offsets of neighbour k of a site of class c at [c * degree + k]
+    final int[] dRow;
+    final int[] dCol;
+    final int[] dLayer;
+    private final int bonds;
+
+    private Lattice(String name, int n, int layers, int parityMask, int[] dRow, int[] dCol, int[] dLayer) {
+        int degree = dRow.length / (parityMask + 1);
+        // bond slots must be addressable by int too
+        if (n <= 0 || (long) n * n * layers * degree > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        this.name = name;
+        this.rows = n;
+        this.cols = n;
+        this.layers = layers;
+        this.degree = degree;
+        this.parityMask = parityMask;
+        this.dRow = dRow;
+        this.dCol = dCol;
+        this.dLayer = dLayer;
+        this.bonds = countBonds();
+    }
+
+    // n-by-n square lattice, 4 neighbours
+    public static Lattice square(int n) {
+        return new Lattice("square", n, 1, 0,
+                new int[] {0, 0, 1, -1},
+                new int[] {1, -1, 0, 0},
+                new int[4]);
+    }
+
+    // n-by-n square lattice with diagonals, 8 neighbours
+    public static Lattice squareEight(int n) {
+        return new Lattice("square-8", n, 1, 0,
+                new int[] {0, 0, 1, -1, 1, 1, -1, -1},
+                new int[] {1, -1, 0, 0, 1, -1, 1, -1},
+                new int[8]);
+    }
+
+    // triangular lattice embedded in an n-by-n grid, 6 neighbours
+    public static Lattice triangular(int n) {
+        return new Lattice("triangular", n, 1, 0,
+                new int[] {0, 0, 1, -1, 1, -1},
+                new int[] {1, -1, 0, 0, 1, -1},
+                new int[6]);
+    }
+
+    // hexagonal (honeycomb) lattice as a brick wall in an n-by-n grid, 3 neighbours
+    // sites with even row + col link down, sites with odd row + col link up
+    public static Lattice hexagonal(int n) {
+        return new Lattice("hexagonal", n, 1, 1,
+                new int[] {0, 0, 1, 0, 0, -1},
+                new int[] {1, -1, 0, 1, -1, 0},
+                new int[6]);
+    }
+
+    // n-by-n-by-n simple cubic lattice, 6 neighbours
+    public static Lattice cubic(int n) {
+        return new Lattice("cubic", n, n, 0,
+                new int[] {0, 0, 1, -1, 0, 0},
+                new int[] {1, -1, 0, 0, 0, 0},
+                new int[] {0, 0, 0, 0, 1, -1});
+    }
+
+    // lattice by name: square, square-8, triangular, hexagonal or cubic
+    public static Lattice of(String name, int n) {
+        switch (name) {
+            case "square":
+                return square(n);
+            case "square-8":
+                return squareEight(n);
+            case "triangular":
+                return triangular(n);
+            case "hexagonal":
+                return hexagonal(n);
+            case "cubic":
+                return cubic(n);
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    // number of sites
+    public int sites() {
+        return rows * cols * layers;
+    }
+
+    // number of bond slots, not every slot is a bond
+    public int bondSlots() {
+        return sites() * degree;
+    }
+
+    // number of bonds
+    public int bonds() {
+        return bonds;
+    }
+
+    // is the slot a bond of this lattice?
+    public boolean isBond(int slot) {
+        if (slot < 0 || slot >= bondSlots()) {
+            return false;
+        }
+        int site = slot / degree;
+        int other = neighbour(site, slot - site * degree);
+        return other > site;
+    }
+
+    public String toString() {
+        return name;
+    }
+
+    private int countBonds() {
+        int count = 0;
+        for (int slot = 0; slot < bondSlots(); slot++) {
+            if (isBond(slot)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // index of neighbour k of site, -1 if it lies outside the lattice
+    int neighbour(int site, int k) {
+        int layer = site % layers;
+        int rest = site / layers;
+        int col = rest % cols;
+        int row = rest / cols;
+        int offset = ((row + col) & parityMask) * degree + k;
+        int r = row + dRow[offset];
+        int c = col + dCol[offset];
+        int l = layer + dLayer[offset];
+        if (r < 0 || r >= rows || c < 0 || c >= cols || l < 0 || l >= layers) {
+            return -1;
+        }
+        return (r * cols + c) * layers + l;
+    }
+}
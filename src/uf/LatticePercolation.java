@@ -0,0 +1,189 @@
+package uf;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+/*
+ * site or bond percolation on any Lattice, from row 0 to the last row
+ * site mode: sites start blocked and are opened one by one, neighbouring open sites are connected
+ * bond mode: every site is open but isolated, opening a bond connects its two sites
+ * sites are stored in a SiteUF exactly like Percolation, the lattice only supplies the neighbour offsets
+ * */
+public class LatticePercolation {
+    private final Lattice lattice;
+    private final boolean bonds;
+    private final int rows;
+    private final int cols;
+    private final int layers;
+    private final int degree;
+    private final int parityMask;
+    private final int[] dRow;
+    private final int[] dCol;
+    private final int[] dLayer;
+    private final SiteUF sites;
+    // one bit per bond slot, bond mode only
+    private final long[] openBonds;
+    private int numOfOpenSites;
+    private int numOfOpenBonds;
+    private boolean percolates;
+
+    // all sites blocked (site mode) or all bonds closed (bond mode)
+    public LatticePercolation(Lattice lattice, boolean bonds) {
+        if (lattice == null) {
+            throw new IllegalArgumentException();
+        }
+        this.lattice = lattice;
+        this.bonds = bonds;
+        this.rows = lattice.rows;
+        this.cols = lattice.cols;
+        this.layers = lattice.layers;
+        this.degree = lattice.degree;
+        this.parityMask = lattice.parityMask;
+        this.dRow = lattice.dRow;
+        this.dCol = lattice.dCol;
+        this.dLayer = lattice.dLayer;
+        this.sites = new SiteUF(lattice.sites());
+        this.openBonds = bonds ? new long[(lattice.bondSlots() + 63) >>> 6] : null;
+        reset();
+    }
+
+    // the lattice this system lives on
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    // opens the site if it is not open already (site mode)
+    public void openSite(int site) {
+        if (bonds) {
+            throw new UnsupportedOperationException();
+        }
+        validateSite(site);
+        if (sites.isOpen(site)) {
+            return;
+        }
+        int layer = site % layers;
+        int rest = site / layers;
+        int col = rest % cols;
+        int row = rest / cols;
+        sites.open(site, boundaryFlags(row));
+        numOfOpenSites++;
+        int offset = ((row + col) & parityMask) * degree;
+        for (int k = offset; k < offset + degree; k++) {
+            int r = row + dRow[k];
+            int c = col + dCol[k];
+            int l = layer + dLayer[k];
+            if (r < 0 || r >= rows || c < 0 || c >= cols || l < 0 || l >= layers) {
+                continue;
+            }
+            int other = (r * cols + c) * layers + l;
+            if (sites.isOpen(other)) {
+                sites.union(site, other);
+            }
+        }
+        checkPercolates(site);
+    }
+
+    // opens the bond in the given slot if it is not open already, see Lattice (bond mode)
+    public void openBond(int slot) {
+        if (!bonds) {
+            throw new UnsupportedOperationException();
+        }
+        if (!lattice.isBond(slot)) {
+            throw new IllegalArgumentException();
+        }
+        if ((openBonds[slot >>> 6] & (1L << slot)) != 0) {
+            return;
+        }
+        openBonds[slot >>> 6] |= 1L << slot;
+        numOfOpenBonds++;
+        int site = slot / degree;
+        sites.union(site, lattice.neighbour(site, slot - site * degree));
+        checkPercolates(site);
+    }
+
+    // is the site open?
+    public boolean isOpen(int site) {
+        validateSite(site);
+        return sites.isOpen(site);
+    }
+
+    // is the site connected to row 0 through open sites / bonds?
+    public boolean isFull(int site) {
+        return isOpen(site) && (sites.flags(site) & SiteUF.TOP) != 0;
+    }
+
+    // returns the number of open sites, every site in bond mode
+    public int numberOfOpenSites() {
+        return numOfOpenSites;
+    }
+
+    // returns the number of open bonds
+    public int numberOfOpenBonds() {
+        return numOfOpenBonds;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // back to the initial state, reusing the storage
+    public void reset() {
+        sites.reset();
+        numOfOpenSites = 0;
+        numOfOpenBonds = 0;
+        percolates = false;
+        if (!bonds) {
+            return;
+        }
+        Arrays.fill(openBonds, 0L);
+        int perRow = cols * layers;
+        for (int site = 0; site < rows * perRow; site++) {
+            sites.open(site, boundaryFlags(site / perRow));
+        }
+        numOfOpenSites = rows * perRow;
+        // a single row touches top and bottom
+        percolates = rows == 1;
+    }
+
+    // test client
+    // usage: lattice n trials [bond], lattice is one of square, square-8, triangular, hexagonal, cubic
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            throw new IllegalArgumentException();
+        }
+        Lattice lattice = Lattice.of(args[0], Integer.parseInt(args[1]));
+        boolean bonds = args.length > 3 && "bond".equals(args[3]);
+        PercolationStats stats = new PercolationStats(lattice, bonds, Integer.parseInt(args[2]), System.nanoTime());
+        stats.start();
+        StdOut.println((bonds ? "bond" : "site") + " percolation on " + lattice);
+        StdOut.println("mean = " + stats.mean());
+        StdOut.println("stddev = " + stats.stddev());
+        StdOut.println("95% confidence interval = [" + stats.confidenceLo() +
+                ", " + stats.confidenceHi() + "]");
+    }
+
+    private int boundaryFlags(int row) {
+        int flags = 0;
+        if (row == 0) {
+            flags |= SiteUF.TOP;
+        }
+        if (row == rows - 1) {
+            flags |= SiteUF.BOTTOM;
+        }
+        return flags;
+    }
+
+    private void checkPercolates(int site) {
+        if ((sites.flags(site) & (SiteUF.TOP | SiteUF.BOTTOM)) == (SiteUF.TOP | SiteUF.BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    private void validateSite(int site) {
+        if (site < 0 || site >= rows * cols * layers) {
+            throw new IllegalArgumentException();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package uf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * long array outside the java heap, indexed by long
+ * a single ByteBuffer is limited to 2^31 bytes, so the array is split into segments of 2^27 longs (1 GiB)
+ * either direct buffers or regions of a memory-mapped file, every element starts as 0
+ * allocateDirect zeroes its buffers up front and counts them against -XX:MaxDirectMemorySize
+ * (by default the -Xmx heap size), a mapped file is created sparse and only takes pages that are written
+ * */
+final class OffHeapLongArray {
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final long length;
+    private final LongBuffer[] segments;
+    // the mapped regions behind segments, null for direct buffers
+    private final MappedByteBuffer[] mapped;
+    private boolean closed;
+
+    // backed by direct buffers
+    OffHeapLongArray(long length) {
+        this.length = length;
+        this.segments = new LongBuffer[segmentCount(length)];
+        this.mapped = null;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes(length, i))
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    // backed by file, which is created or truncated; the mappings stay valid after the channel is closed
+    OffHeapLongArray(long length, Path file) throws IOException {
+        this.length = length;
+        this.segments = new LongBuffer[segmentCount(length)];
+        this.mapped = new MappedByteBuffer[segments.length];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < segments.length; i++) {
+                long offset = ((long) i << SEGMENT_SHIFT) * Long.BYTES;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, segmentBytes(length, i));
+                segments[i] = mapped[i].order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    long get(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK));
+    }
+
+    void set(long i, long value) {
+        segments[(int) (i >>> SEGMENT_SHIFT)].put((int) (i & SEGMENT_MASK), value);
+    }
+
+    // writes the changes of a file-backed array through to the file, nothing to do for direct buffers
+    void force() {
+        if (closed) {
+            throw new IllegalStateException();
+        }
+        if (mapped != null) {
+            for (MappedByteBuffer buffer : mapped) {
+                buffer.force();
+            }
+        }
+    }
+
+    /*
+    * forces a file-backed array and drops every buffer, later get / set fail
+    * java has no public unmap: the direct memory or the mapping is released once the buffers are collected
+    * */
+    void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        Arrays.fill(segments, null);
+        if (mapped != null) {
+            Arrays.fill(mapped, null);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private static int segmentCount(long length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    private static int segmentBytes(long length, int segment) {
+        long start = (long) segment << SEGMENT_SHIFT;
+        return (int) (Math.min(length - start, 1L << SEGMENT_SHIFT) * Long.BYTES);
+    }
+}
@@ -0,0 +1,211 @@
+package uf;
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+ * percolation on an n-by-n grid whose sites live off the java heap, for grids too large for int[] arrays
+ * same api as Percolation, sites are indexed by long so n * n may exceed 2^31
+ *
+ * each site is one packed long:
+ * bits 0-47 --> parent + 1 (0 means the site is its own root), bits 48-50 --> open / top / bottom, bits 51-56 --> rank
+ * an all-zero store is a valid empty grid, so construction writes no site
+ * in direct memory that still costs 8 n^2 bytes up front: allocateDirect zeroes every buffer,
+ * and the total is capped by -XX:MaxDirectMemorySize, which defaults to the -Xmx heap size
+ * a file-backed grid is created as a sparse file and only takes disk pages as sites are opened,
+ * force() writes it through, close() forces it and releases the grid
+ * */
+public class OffHeapPercolation implements AutoCloseable {
+    private static final int PARENT_BITS = 48;
+    private static final long PARENT_MASK = (1L << PARENT_BITS) - 1;
+    private static final long OPEN = 1L << PARENT_BITS;
+    private static final long TOP = 2L << PARENT_BITS;
+    private static final long BOTTOM = 4L << PARENT_BITS;
+    private static final long FLAGS = OPEN | TOP | BOTTOM;
+    private static final int RANK_SHIFT = PARENT_BITS + 3;
+    private static final long RANK_MASK = 0x3fL << RANK_SHIFT;
+
+    private final int n;
+    private long numOfOpenSites;
+    private boolean percolates;
+    private final OffHeapLongArray sites;
+
+    // creates n-by-n grid in direct memory, with all sites initially blocked
+    public OffHeapPercolation(int n) {
+        validateSize(n);
+        this.n = n;
+        this.sites = new OffHeapLongArray((long) n * n);
+    }
+
+    // creates n-by-n grid in a memory-mapped file, which is created or truncated
+    public OffHeapPercolation(int n, Path file) throws IOException {
+        validateSize(n);
+        if (file == null) {
+            throw new IllegalArgumentException();
+        }
+        this.n = n;
+        this.sites = new OffHeapLongArray((long) n * n, file);
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        validate(row, col);
+        long cur = getIndex(row, col);
+        long entry = sites.get(cur);
+        if ((entry & OPEN) != 0) {
+            return;
+        }
+        long flags = OPEN;
+        if (row == 1) {
+            flags |= TOP;
+        }
+        if (row == n) {
+            flags |= BOTTOM;
+        }
+        sites.set(cur, entry | flags);
+        numOfOpenSites++;
+        if (col < n) {
+            connectNearby(cur, cur + 1);
+        }
+        if (col > 1) {
+            connectNearby(cur, cur - 1);
+        }
+        if (row < n) {
+            connectNearby(cur, cur + n);
+        }
+        if (row > 1) {
+            connectNearby(cur, cur - n);
+        }
+        if ((sites.get(find(cur)) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        validate(row, col);
+        return (sites.get(getIndex(row, col)) & OPEN) != 0;
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        if (!isOpen(row, col)) {
+            return false;
+        }
+        return (sites.get(find(getIndex(row, col))) & TOP) != 0;
+    }
+
+    // returns the number of open sites
+    public long numberOfOpenSites() {
+        return numOfOpenSites;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // writes a file-backed grid through to its file, nothing to do in direct memory
+    public void force() {
+        sites.force();
+    }
+
+    // forces a file-backed grid and drops its buffers, the grid cannot be used afterwards
+    @Override
+    public void close() {
+        sites.close();
+    }
+
+    /*
+    * unit testing
+    * usage: n [file], opens random sites until the grid percolates and prints the fraction of open sites
+    * without a file the grid needs 8 n^2 bytes of direct memory, more than the default cap for a large n:
+    * java -XX:MaxDirectMemorySize=40g uf.OffHeapPercolation 65536
+    * */
+    public static void main(String[] args) throws IOException {
+        int n = Integer.parseInt(args[0]);
+        try (OffHeapPercolation percolation = args.length > 1
+                ? new OffHeapPercolation(n, Paths.get(args[1])) : new OffHeapPercolation(n)) {
+            while (!percolation.percolates()) {
+                percolation.open(StdRandom.uniform(n) + 1, StdRandom.uniform(n) + 1);
+            }
+            double fraction = percolation.numberOfOpenSites() * 1D / ((long) n * n);
+            StdOut.println("percolates with " + fraction + " of the sites open");
+        }
+    }
+
+    private void validateSize(int n) {
+        if (n <= 0 || (long) n * n > PARENT_MASK) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private void validate(int row, int col) {
+        if (sites.isClosed()) {
+            throw new IllegalStateException();
+        }
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private long getIndex(int row, int col) {
+        return (long) (row - 1) * n + col - 1;
+    }
+
+    private void connectNearby(long cur, long other) {
+        if ((sites.get(other) & OPEN) != 0) {
+            union(cur, other);
+        }
+    }
+
+    private static long parentOf(long p, long entry) {
+        long link = entry & PARENT_MASK;
+        return link == 0 ? p : link - 1;
+    }
+
+    // path halving
+    private long find(long p) {
+        while (true) {
+            long entry = sites.get(p);
+            long parent = parentOf(p, entry);
+            if (parent == p) {
+                return p;
+            }
+            long grandParent = parentOf(parent, sites.get(parent));
+            if (grandParent == parent) {
+                return parent;
+            }
+            sites.set(p, (entry & ~PARENT_MASK) | (grandParent + 1));
+            p = grandParent;
+        }
+    }
+
+    // union by rank, flags are or-ed into the new root
+    private void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        long entryP = sites.get(rootP);
+        long entryQ = sites.get(rootQ);
+        long flags = (entryP | entryQ) & FLAGS;
+        long rankP = entryP & RANK_MASK;
+        long rankQ = entryQ & RANK_MASK;
+        if (rankP < rankQ) {
+            sites.set(rootP, (entryP & ~PARENT_MASK) | (rootQ + 1));
+            sites.set(rootQ, entryQ | flags);
+        }else {
+            sites.set(rootQ, (entryQ & ~PARENT_MASK) | (rootP + 1));
+            if (rankP == rankQ) {
+                rankP += 1L << RANK_SHIFT;
+            }
+            sites.set(rootP, (entryP & ~(RANK_MASK | FLAGS)) | rankP | flags);
+        }
+    }
+}
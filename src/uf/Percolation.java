@@ -1,17 +1,15 @@
 package uf;
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
-
 public class Percolation {
     private final int n;
     private int numOfOpenSites;
-    private final int top;
-    private final int bottom;
-    private final boolean[][] openOrClose;
-    private final WeightedQuickUnionUF ufModel;
-    // rows above virtual bottom are all considered full even if only one of them is connected to the virtual top
-    // to fix it, create a new ufModel to keep track of sites without applying virtual bottom
-    private final WeightedQuickUnionUF ufModelWithoutBottom;
+    private boolean percolates;
+    // open state, top/bottom connectivity and parent links of every site in flat arrays
+    // top/bottom flags live on the roots, so a single union-find is enough to avoid backwash
+    private final SiteUF sites;
+    // state restored by rollback()
+    private int checkpointOpenSites;
+    private boolean checkpointPercolates;
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
@@ -20,33 +18,57 @@ public class Percolation {
         }
         this.n = n;
         this.numOfOpenSites = 0;
-        this.top = 0;
-        this.bottom = n * n + 1;
-        this.openOrClose = new boolean[n + 1][n + 1];
-        this.ufModel = new WeightedQuickUnionUF( bottom + 1);
-        this.ufModelWithoutBottom = new WeightedQuickUnionUF(bottom);
-        connectTopAndBottom();
+        this.percolates = false;
+        this.sites = new SiteUF(n * n);
     }
 
     // opens the site (row, col) if it is not open already
     public void open(int row, int col) {
         validate(row, col);
-        if (openOrClose[row][col]) {
-            return;
+        open(getIndex(row, col), row, col);
+    }
+
+    // opens siteIndices[from, to), a site index is (row - 1) * n + (col - 1)
+    public void openAll(int[] siteIndices, int from, int to) {
+        if (siteIndices == null || from < 0 || to > siteIndices.length || from > to) {
+            throw new IllegalArgumentException();
+        }
+        // the whole batch is checked first, a bad index leaves the grid untouched
+        for (int i = from; i < to; i++) {
+            if (siteIndices[i] < 0 || siteIndices[i] >= n * n) {
+                throw new IllegalArgumentException();
+            }
+        }
+        for (int i = from; i < to; i++) {
+            int index = siteIndices[i];
+            open(index, index / n + 1, index % n + 1);
         }
-        openOrClose[row][col] = true;
-        numOfOpenSites++;
-        int curIndex = getIndex(row, col);
-        connectNearby(curIndex, row, col + 1);
-        connectNearby(curIndex, row, col - 1);
-        connectNearby(curIndex, row + 1, col);
-        connectNearby(curIndex, row - 1, col);
+    }
+
+    // remembers the current grid, later opens can be undone by rollback()
+    // finds run without path compression until commit()
+    public void checkpoint() {
+        sites.checkpoint();
+        checkpointOpenSites = numOfOpenSites;
+        checkpointPercolates = percolates;
+    }
+
+    // closes every site opened since the last checkpoint()
+    public void rollback() {
+        sites.rollback();
+        numOfOpenSites = checkpointOpenSites;
+        percolates = checkpointPercolates;
+    }
+
+    // keeps the current grid and drops the checkpoint
+    public void commit() {
+        sites.commit();
     }
 
     // is the site (row, col) open?
     public boolean isOpen(int row, int col) {
         validate(row, col);
-        return openOrClose[row][col];
+        return sites.isOpen(getIndex(row, col));
     }
 
     // is the site (row, col) full?
@@ -54,7 +76,7 @@ public class Percolation {
         if (!isOpen(row, col)) {
             return false;
         }
-        return ufModelWithoutBottom.find(top) == ufModelWithoutBottom.find(getIndex(row, col));
+        return (sites.flags(getIndex(row, col)) & SiteUF.TOP) != 0;
     }
 
     // returns the number of open sites
@@ -64,10 +86,24 @@ public class Percolation {
 
     // does the system percolate?
     public boolean percolates() {
-        if (n == 1) {
-            return openOrClose[1][1];
-        }
-        return ufModel.find(top) == ufModel.find(bottom);
+        return percolates;
+    }
+
+    // blocks every site again, reusing the grid instead of allocating a new one
+    public void reset() {
+        sites.reset();
+        numOfOpenSites = 0;
+        percolates = false;
+    }
+
+    // starts counting opens, unions and find paths, see PercolationMetrics
+    public PercolationMetrics enableMetrics() {
+        return sites.enableMetrics();
+    }
+
+    // metrics since enableMetrics(), null if they were never enabled
+    public PercolationMetrics metrics() {
+        return sites.metrics();
     }
 
     // test client (optional)
@@ -76,37 +112,55 @@ public class Percolation {
 //
 //    }
 
-    private void connectTopAndBottom() {
-        for (int i = 1; i <= n; i++) {
-            ufModel.union(top, i);
-            ufModelWithoutBottom.union(top, i);
+    private void open(int curIndex, int row, int col) {
+        if (sites.isOpen(curIndex)) {
+            return;
+        }
+        sites.open(curIndex, boundaryFlags(row));
+        numOfOpenSites++;
+        // neighbours outside the grid are skipped by plain bounds checks
+        if (col < n) {
+            connectNearby(curIndex, curIndex + 1);
+        }
+        if (col > 1) {
+            connectNearby(curIndex, curIndex - 1);
+        }
+        if (row < n) {
+            connectNearby(curIndex, curIndex + n);
+        }
+        if (row > 1) {
+            connectNearby(curIndex, curIndex - n);
         }
-        for (int i = n * n; i > n * (n - 1); i--) {
-            ufModel.union(bottom, i);
+        if ((sites.flags(curIndex) & (SiteUF.TOP | SiteUF.BOTTOM)) == (SiteUF.TOP | SiteUF.BOTTOM)) {
+            percolates = true;
         }
     }
 
-    private void validate(int...args) {
-        for (int arg : args) {
-            if (arg < 1 || arg > n) {
-                throw new IllegalArgumentException();
-            }
+    // sites in the first row are connected to top, sites in the last row to bottom (both when n == 1)
+    private int boundaryFlags(int row) {
+        int flags = 0;
+        if (row == 1) {
+            flags |= SiteUF.TOP;
+        }
+        if (row == n) {
+            flags |= SiteUF.BOTTOM;
+        }
+        return flags;
+    }
+
+    private void validate(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException();
         }
     }
 
     private int getIndex(int row, int col) {
-        return (row - 1) * n + col;
+        return (row - 1) * n + col - 1;
     }
 
-    private void connectNearby(int curIndex, int row, int col) {
-        try {
-            validate(row, col);
-        } catch (IllegalArgumentException e) {
-            return;
-        }
-        if (openOrClose[row][col]) {
-            ufModel.union(curIndex, getIndex(row, col));
-            ufModelWithoutBottom.union(curIndex, getIndex(row, col));
+    private void connectNearby(int curIndex, int index) {
+        if (sites.isOpen(index)) {
+            sites.union(curIndex, index);
         }
     }
 }
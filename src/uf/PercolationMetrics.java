@@ -0,0 +1,63 @@
+package uf;
+
+/*
+ * counters of the work done by a Percolation since its metrics were enabled
+ * counting costs one null check per find when metrics are off, so they are opt-in
+ * counters keep accumulating across reset(), so a whole multi-trial run can be measured with one instance
+ * */
+public class PercolationMetrics {
+    private final SiteUF sites;
+    private final long start;
+    long opens;
+    long unions;
+    long finds;
+    long findSteps;
+    int maxFindSteps;
+
+    PercolationMetrics(SiteUF sites) {
+        this.sites = sites;
+        this.start = System.nanoTime();
+    }
+
+    // number of sites opened
+    public long opens() {
+        return opens;
+    }
+
+    // opens per second of wall-clock time since the metrics were enabled
+    public double opensPerSecond() {
+        return opens / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // number of unions that merged two components
+    public long unions() {
+        return unions;
+    }
+
+    // number of finds
+    public long finds() {
+        return finds;
+    }
+
+    // average number of parent links followed by a find
+    public double averageFindPathLength() {
+        return finds == 0 ? 0D : findSteps * 1D / finds;
+    }
+
+    // longest path followed by a single find
+    public int maxFindPathLength() {
+        return maxFindSteps;
+    }
+
+    // height of the tallest tree right now, walks every site so it is O(n^2 log n)
+    public int maxTreeHeight() {
+        return sites.maxHeight();
+    }
+
+    public String toString() {
+        return "opens = " + opens + ", opens/s = " + String.format("%.0f", opensPerSecond())
+                + ", unions = " + unions + ", finds = " + finds
+                + ", avg find path = " + String.format("%.3f", averageFindPathLength())
+                + ", max find path = " + maxFindSteps + ", max tree height = " + maxTreeHeight();
+    }
+}
@@ -4,23 +4,62 @@ import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 public class PercolationStats {
     private static final double CONFIDENCE = 1.96D;
 
     private final int n;
+    // null for the square grid of Percolation
+    private final Lattice lattice;
+    private final boolean bonds;
     private final int trials;
+    private final long seed;
+    // find the threshold by bisecting over the permutation instead of opening site by site
+    private final boolean bisect;
     private final double[] stats;
+    // grid and site order are reused across the trials run by one thread
+    private final ThreadLocal<TrialBuffer> buffers;
     private double mean;
     private double stddev;
 
-    // perform independent trials on an n-by-n grid
+    // perform independent trials on an n-by-n grid, every instance draws its own seed from StdRandom
     public PercolationStats(int n, int trials) {
+        this(n, trials, StdRandom.uniform(Long.MAX_VALUE));
+    }
+
+    // perform independent trials on an n-by-n grid, reproducible for the same seed
+    public PercolationStats(int n, int trials, long seed) {
+        this(n, trials, seed, false);
+    }
+
+    // perform independent trials on an n-by-n grid, optionally bisecting for each threshold
+    // both searches see the same permutation, so they give identical results for the same seed
+    public PercolationStats(int n, int trials, long seed, boolean bisect) {
+        this(n, null, false, trials, seed, bisect);
+    }
+
+    // perform independent site or bond percolation trials on any lattice
+    public PercolationStats(Lattice lattice, boolean bonds, int trials, long seed) {
+        this(lattice == null ? 0 : lattice.rows, lattice, bonds, trials, seed, false);
+    }
+
+    private PercolationStats(int n, Lattice lattice, boolean bonds, int trials, long seed, boolean bisect) {
         if (n <= 0 || trials <= 0) {
             throw new IllegalArgumentException();
         }
         this.n = n;
+        this.lattice = lattice;
+        this.bonds = bonds;
         this.trials = trials;
+        this.seed = seed;
+        this.bisect = bisect;
         this.stats = new double[trials];
+        this.buffers = ThreadLocal.withInitial(() -> lattice == null ? new TrialBuffer(n)
+                : new TrialBuffer(lattice, bonds));
     }
 
     // sample mean of percolation threshold
@@ -44,30 +83,190 @@ public class PercolationStats {
     }
 
     // test client (see below)
+    // usage: n trials [threads [bisect]], trials run in parallel when threads > 1,
+    // thresholds are found by bisection when bisect is 1
     public static void main(String[] args) {
         int[] params = PercolationStats.validate(args);
-        PercolationStats stats = new PercolationStats(params[0], params[1]);
-        stats.start();
+        PercolationStats stats = new PercolationStats(params[0], params[1], StdRandom.getSeed(),
+                params.length > 3 && params[3] == 1);
+        if (params.length > 2 && params[2] > 1) {
+            ForkJoinPool pool = new ForkJoinPool(params[2]);
+            try {
+                stats.start(pool);
+            } finally {
+                pool.shutdown();
+            }
+        }else {
+            stats.start();
+        }
         StdOut.println("mean = " + stats.mean());
         StdOut.println("stddev = " + stats.stddev());
         StdOut.println("95% confidence interval = [" + stats.confidenceLo() +
                 ", " + stats.confidenceHi() + "]");
     }
 
-    private void start() {
+    // run the trials on the calling thread, mean() and stddev() are 0 until a start has run
+    public void start() {
+        SplittableRandom[] streams = streams();
         for (int i = 0; i < trials; i++) {
-            Percolation percolation = new Percolation(n);
-            while (!percolation.percolates()) {
-                percolation.open(StdRandom.uniform(n) + 1, StdRandom.uniform(n) + 1);
+            trial(i, streams[i]);
+        }
+        summarize();
+    }
+
+    /*
+    * every trial owns an independent random stream split from the seed before any trial starts,
+    * so the result of trial i does not depend on which worker runs it or when,
+    * and stats[] is summarized in trial order --> identical mean / stddev to start()
+    * the executor is the caller's, it is neither shut down nor waited for beyond these trials
+    * */
+    public void start(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException();
+        }
+        SplittableRandom[] streams = streams();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[trials];
+        for (int i = 0; i < trials; i++) {
+            int index = i;
+            futures[i] = CompletableFuture.runAsync(() -> trial(index, streams[index]), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        summarize();
+    }
+
+    private SplittableRandom[] streams() {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[trials];
+        for (int i = 0; i < trials; i++) {
+            streams[i] = root.split();
+        }
+        return streams;
+    }
+
+    private void trial(int i, SplittableRandom random) {
+        TrialBuffer buffer = buffers.get();
+        buffer.reset();
+        if (lattice != null) {
+            stats[i] = latticeSearch(buffer.lattice, buffer.order, random, bonds);
+            return;
+        }
+        int opened = bisect ? bisectionSearch(buffer.percolation, buffer.order, random)
+                : linearSearch(buffer.percolation, buffer.order, random);
+        stats[i] = opened / (n * n * 1D);
+    }
+
+    /*
+    * open sites in the order of a random permutation of the n * n site indexes
+    * drawing (row, col) pairs wastes most draws on already open sites near the threshold,
+    * the permutation is streamed lazily (one fisher-yates step per open)
+    * so the sites left closed after percolation are never shuffled
+    * returns the number of sites open when the system first percolates
+    * */
+    static int linearSearch(Percolation percolation, int[] order, SplittableRandom random) {
+        int k = 0;
+        while (!percolation.percolates()) {
+            k = shuffle(order, k, k + 1, random);
+            percolation.openAll(order, k - 1, k);
+        }
+        return percolation.numberOfOpenSites();
+    }
+
+    /*
+    * smallest k such that the first k sites of the permutation percolate, found by bisection
+    * invariant: prefix lo is open and does not percolate, prefix hi percolates
+    * each step checkpoints prefix lo, opens [lo, mid) in one batch and rolls back if it percolates
+    * percolates() is only looked at once per step, O(log(n * n)) times instead of once per open
+    * the permutation is still shuffled lazily, only up to the furthest mid visited
+    * */
+    static int bisectionSearch(Percolation percolation, int[] order, SplittableRandom random) {
+        int lo = 0;
+        int hi = order.length;
+        int shuffled = 0;
+        while (hi - lo > 1) {
+            int mid = lo + (hi - lo) / 2;
+            shuffled = shuffle(order, shuffled, mid, random);
+            percolation.checkpoint();
+            percolation.openAll(order, lo, mid);
+            if (percolation.percolates()) {
+                percolation.rollback();
+                hi = mid;
+            }else {
+                lo = mid;
+            }
+        }
+        percolation.commit();
+        return hi;
+    }
+
+    /*
+    * linearSearch on a lattice, over site indexes or bond slots
+    * slots that are not bonds are skipped, which leaves a uniform permutation of the bonds
+    * returns the fraction of sites / bonds open when the system first percolates
+    * */
+    static double latticeSearch(LatticePercolation percolation, int[] order, SplittableRandom random, boolean bonds) {
+        Lattice lattice = percolation.lattice();
+        int k = 0;
+        while (!percolation.percolates()) {
+            k = shuffle(order, k, k + 1, random);
+            int id = order[k - 1];
+            if (!bonds) {
+                percolation.openSite(id);
+            }else if (lattice.isBond(id)) {
+                percolation.openBond(id);
             }
-            stats[i] = percolation.numberOfOpenSites() / (n * n * 1D);
         }
+        return bonds ? percolation.numberOfOpenBonds() / (lattice.bonds() * 1D)
+                : percolation.numberOfOpenSites() / (lattice.sites() * 1D);
+    }
+
+    // extends the shuffled prefix order[0, from) to order[0, to), returns the new prefix length
+    private static int shuffle(int[] order, int from, int to, SplittableRandom random) {
+        for (int k = from; k < to; k++) {
+            int swap = k + random.nextInt(order.length - k);
+            int site = order[swap];
+            order[swap] = order[k];
+            order[k] = site;
+        }
+        return Math.max(from, to);
+    }
+
+    private void summarize() {
         this.mean = StdStats.mean(stats);
         this.stddev = StdStats.stddev(stats);
     }
 
+    private static class TrialBuffer {
+        private final Percolation percolation;
+        private final LatticePercolation lattice;
+        private final int[] order;
+
+        TrialBuffer(int n) {
+            percolation = new Percolation(n);
+            lattice = null;
+            order = new int[n * n];
+        }
+
+        TrialBuffer(Lattice lattice, boolean bonds) {
+            this.percolation = null;
+            this.lattice = new LatticePercolation(lattice, bonds);
+            this.order = new int[bonds ? lattice.bondSlots() : lattice.sites()];
+        }
+
+        // identity order at the start of every trial keeps a trial's result independent of earlier trials
+        void reset() {
+            if (percolation != null) {
+                percolation.reset();
+            }else {
+                lattice.reset();
+            }
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        }
+    }
+
     private static int[] validate(String[] args) {
-        if (args.length != 2) {
+        if (args.length < 2 || args.length > 4) {
             throw new IllegalArgumentException();
         }
         int[] res = new int[args.length];
@@ -0,0 +1,203 @@
+package uf;
+
+import java.util.Arrays;
+
+/*
+ * union-find over the sites of a percolation grid, stored in two flat primitive arrays
+ * each site keeps a single packed byte:
+ * bit 0 --> open, bit 1 --> connected to top row, bit 2 --> connected to bottom row, bits 3-7 --> rank
+ * top/bottom flags are only meaningful on roots and are or-ed together on union,
+ * so the backwash problem is solved without a second union-find and without virtual sites
+ * memory per site: 4 (parent) + 1 (state) bytes, vs 17 bytes for boolean[][] + two WeightedQuickUnionUF
+ *
+ * checkpoint / rollback:
+ * after checkpoint() every write is journaled and path compression is switched off,
+ * so the only parent links ever written point away from a former root,
+ * undoing an entry is parent[p] = p plus restoring the old state byte
+ * */
+final class SiteUF {
+    static final int OPEN = 1;
+    static final int TOP = 2;
+    static final int BOTTOM = 4;
+    static final int FLAGS = OPEN | TOP | BOTTOM;
+    private static final int RANK_SHIFT = 3;
+
+    private final int[] parent;
+    private final byte[] state;
+    // journal of sites written since the last checkpoint, with their state before the write
+    private int[] journalSites;
+    private byte[] journalStates;
+    private int journalSize;
+    private boolean recording;
+    // null unless metrics are enabled
+    private PercolationMetrics metrics;
+
+    SiteUF(int size) {
+        parent = new int[size];
+        state = new byte[size];
+        reset();
+    }
+
+    // every site closed and in its own component again
+    void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(state, (byte) 0);
+        commit();
+    }
+
+    // start journaling from the current state, dropping any earlier checkpoint
+    void checkpoint() {
+        if (journalSites == null) {
+            journalSites = new int[16];
+            journalStates = new byte[16];
+        }
+        journalSize = 0;
+        recording = true;
+    }
+
+    // undo every write since the last checkpoint, journaling stays on
+    void rollback() {
+        rollback(0);
+    }
+
+    // position in the journal, for nested rollbacks
+    int mark() {
+        if (!recording) {
+            throw new IllegalStateException();
+        }
+        return journalSize;
+    }
+
+    // undo every write made after mark() returned the given position
+    void rollback(int mark) {
+        if (!recording || mark < 0 || mark > journalSize) {
+            throw new IllegalStateException();
+        }
+        while (journalSize > mark) {
+            journalSize--;
+            int p = journalSites[journalSize];
+            parent[p] = p;
+            state[p] = journalStates[journalSize];
+        }
+    }
+
+    // keep the current state and stop journaling, path compression is enabled again
+    void commit() {
+        journalSize = 0;
+        recording = false;
+    }
+
+    PercolationMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new PercolationMetrics(this);
+        }
+        return metrics;
+    }
+
+    PercolationMetrics metrics() {
+        return metrics;
+    }
+
+    boolean isOpen(int p) {
+        return (state[p] & OPEN) != 0;
+    }
+
+    // a closed site is always its own root, so flags can be written directly
+    void open(int p, int flags) {
+        save(p);
+        state[p] |= OPEN | flags;
+        if (metrics != null) {
+            metrics.opens++;
+        }
+    }
+
+    // flags of the component containing p
+    int flags(int p) {
+        return state[find(p)] & FLAGS;
+    }
+
+    // path halving, keeps find iterative
+    int find(int p) {
+        if (recording || metrics != null) {
+            return slowFind(p);
+        }
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // find without compression while journaling, and counting path lengths when metrics are on
+    private int slowFind(int p) {
+        int steps = 0;
+        while (parent[p] != p) {
+            if (!recording) {
+                parent[p] = parent[parent[p]];
+            }
+            p = parent[p];
+            steps++;
+        }
+        if (metrics != null) {
+            metrics.finds++;
+            metrics.findSteps += steps;
+            metrics.maxFindSteps = Math.max(metrics.maxFindSteps, steps);
+        }
+        return p;
+    }
+
+    // longest path from a site to its root
+    int maxHeight() {
+        int height = 0;
+        for (int i = 0; i < parent.length; i++) {
+            int steps = 0;
+            for (int p = i; parent[p] != p; p = parent[p]) {
+                steps++;
+            }
+            height = Math.max(height, steps);
+        }
+        return height;
+    }
+
+    // union by rank, returns the flags of the merged component
+    int union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        int flags = (state[rootP] | state[rootQ]) & FLAGS;
+        if (rootP == rootQ) {
+            return flags;
+        }
+        int rankP = (state[rootP] & 0xff) >>> RANK_SHIFT;
+        int rankQ = (state[rootQ] & 0xff) >>> RANK_SHIFT;
+        save(rootP);
+        save(rootQ);
+        if (metrics != null) {
+            metrics.unions++;
+        }
+        if (rankP < rankQ) {
+            parent[rootP] = rootQ;
+            state[rootQ] = (byte) (rankQ << RANK_SHIFT | flags);
+        }else {
+            parent[rootQ] = rootP;
+            if (rankP == rankQ) {
+                rankP++;
+            }
+            state[rootP] = (byte) (rankP << RANK_SHIFT | flags);
+        }
+        return flags;
+    }
+
+    private void save(int p) {
+        if (!recording) {
+            return;
+        }
+        if (journalSize == journalSites.length) {
+            journalSites = Arrays.copyOf(journalSites, journalSize * 2);
+            journalStates = Arrays.copyOf(journalStates, journalSize * 2);
+        }
+        journalSites[journalSize] = p;
+        journalStates[journalSize++] = state[p];
+    }
+}